@@ -1,21 +1,27 @@
 package Controllers;
 
 import Models.Product;
-import Services.ExportService;
-import Services.FileService;
+import Services.ExportJob;
+import Services.ExportJobScheduler;
+import Services.InventoryChangeFeed;
+import Services.InventoryChanges;
 import Services.InventoryService;
 import Utils.AlertUtils;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
+import Utils.DisplayStrings;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class InventoryController {
 
@@ -39,79 +45,84 @@ public class InventoryController {
     @FXML private Button btnClose;
 
     private InventoryService inventoryService;
-    private ExportService exportService;
-    private FileService fileService;
+    private ExportJobScheduler exportScheduler;
+    private ExportJob currentExport;
+    private static final String STATUS_LOW = "⚠ FAIBLE";
+    private static final String STATUS_OK = "OK";
+    private static final String STYLE_LOW = "-fx-text-fill: red; -fx-font-weight: bold;";
+    private static final String STYLE_OK = "-fx-text-fill: green;";
+
+    private final ProductCells cells = new ProductCells();
+    private final DisplayStrings strings = new DisplayStrings();
+    private PagedProductList products;
+    private InventoryChangeFeed changeFeed;
+    private final Map<TableColumn<Product, ?>, Comparator<Product>> columnComparators = new HashMap<>();
 
     public void setInventoryService(InventoryService service) {
         this.inventoryService = service;
-        this.exportService = new ExportService();
-        this.fileService = new FileService();
+        this.exportScheduler = new ExportJobScheduler(service);
         loadInventoryData();
         updateStatistics();
+        // Les modifications faites ailleurs (formulaire produit, imports...) arrivent par lots
+        this.changeFeed = new InventoryChangeFeed(service, this::applyChanges);
+        tableView.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((o, oldWindow, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> changeFeed.close());
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyChanges(InventoryChanges changes) {
+        if (products != null) {
+            products.applyChanges(changes);
+        }
+        // Produits modifiés sur place : même instance, la TableView ne redessine pas la ligne
+        Set<Integer> updatedIds = new HashSet<>();
+        for (Product product : changes.getUpdated()) {
+            updatedIds.add(product.getId());
+        }
+        cells.refresh(updatedIds);
+        lblTotalProducts.setText(strings.number(changes.getProductCount()));
+        lblTotalValue.setText(strings.amount(changes.getTotalValue()));
+        lblLowStockCount.setText(strings.number(changes.getLowStockCount()));
     }
 
     @FXML
     private void initialize() {
         setupTableColumns();
+        setupSorting();
         setupButtonActions();
     }
 
-    private void setupTableColumns() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        colCategory.setCellValueFactory(cellData ->
-                new SimpleObjectProperty<>(cellData.getValue().getCategory() != null ?
-                        cellData.getValue().getCategory().getName() : "N/A"));
-        colPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
-        colQuantity.setCellValueFactory(new PropertyValueFactory<>("quantity"));
-        colTotalValue.setCellValueFactory(cellData ->
-                new SimpleObjectProperty<>(cellData.getValue().getTotalValue()));
-
-        colStatus.setCellValueFactory(cellData ->
-                new SimpleObjectProperty<>(cellData.getValue().isLowStock() ? "⚠ FAIBLE" : "OK"));
-
-        // Formatage des cellules
-        colPrice.setCellFactory(column -> new TableCell<Product, Double>() {
-            @Override
-            protected void updateItem(Double price, boolean empty) {
-                super.updateItem(price, empty);
-                if (empty || price == null) {
-                    setText(null);
-                } else {
-                    setText(String.format("%.2f €", price));
-                }
-            }
-        });
-
-        colTotalValue.setCellFactory(column -> new TableCell<Product, Double>() {
-            @Override
-            protected void updateItem(Double value, boolean empty) {
-                super.updateItem(value, empty);
-                if (empty || value == null) {
-                    setText(null);
-                } else {
-                    setText(String.format("%.2f €", value));
-                }
-            }
-        });
+    private void setupSorting() {
+        columnComparators.put(colId, Comparator.comparingInt(Product::getId));
+        columnComparators.put(colName, Comparator.comparing(Product::getName,
+                Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        columnComparators.put(colCategory, Comparator.comparing(
+                p -> p.getCategory() != null ? p.getCategory().getName() : "N/A"));
+        columnComparators.put(colPrice, Comparator.comparingDouble(Product::getPrice));
+        columnComparators.put(colQuantity, Comparator.comparingInt(Product::getQuantity));
+        columnComparators.put(colTotalValue, Comparator.comparingDouble(Product::getTotalValue));
+        columnComparators.put(colStatus, Comparator.comparing(Product::isLowStock));
+        tableView.setSortPolicy(this::sortProducts);
+    }
 
-        colStatus.setCellFactory(column -> new TableCell<Product, String>() {
-            @Override
-            protected void updateItem(String status, boolean empty) {
-                super.updateItem(status, empty);
-                if (empty || status == null) {
-                    setText(null);
-                    setStyle("");
-                } else {
-                    setText(status);
-                    if (status.equals("⚠ FAIBLE")) {
-                        setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
-                    } else {
-                        setStyle("-fx-text-fill: green;");
-                    }
-                }
-            }
-        });
+    // Pas de fabrique de valeurs : les cellules lisent le produit de leur ligne et
+    // affichent des chaînes en cache (voir ProductCells et DisplayStrings)
+    private void setupTableColumns() {
+        colId.setCellFactory(cells.factory(p -> strings.number(p.getId())));
+        colName.setCellFactory(cells.factory(Product::getName));
+        colCategory.setCellFactory(cells.factory(p -> p.getCategory() != null ? p.getCategory().getName() : "N/A"));
+        colPrice.setCellFactory(cells.factory(p -> strings.amount(p.getPrice())));
+        colQuantity.setCellFactory(cells.factory(p -> strings.number(p.getQuantity())));
+        colTotalValue.setCellFactory(cells.factory(p -> strings.amount(p.getTotalValue())));
+        colStatus.setCellFactory(cells.factory(
+                p -> p.isLowStock() ? STATUS_LOW : STATUS_OK,
+                p -> p.isLowStock() ? STYLE_LOW : STYLE_OK));
     }
 
     private void setupButtonActions() {
@@ -133,18 +144,45 @@ public class InventoryController {
         });
     }
 
+    // Liste paginée : seules les lignes affichées sont chargées depuis le service
     private void loadInventoryData() {
         if (inventoryService != null) {
-            tableView.setItems(FXCollections.observableArrayList(
-                    inventoryService.getAllProducts()));
+            if (products == null) {
+                products = new PagedProductList(inventoryService);
+                tableView.setItems(products);
+            } else {
+                tableView.getSelectionModel().clearSelection();
+                products.refresh();
+            }
         }
     }
 
+    // Le tri demandé par la TableView est délégué au service
+    private boolean sortProducts(TableView<Product> table) {
+        if (products == null) {
+            return true;
+        }
+        Comparator<Product> order = null;
+        for (TableColumn<Product, ?> column : table.getSortOrder()) {
+            Comparator<Product> columnOrder = columnComparators.get(column);
+            if (columnOrder == null) {
+                continue;
+            }
+            if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+                columnOrder = columnOrder.reversed();
+            }
+            order = order == null ? columnOrder : order.thenComparing(columnOrder);
+        }
+        table.getSelectionModel().clearSelection();
+        products.setOrder(order);
+        return true;
+    }
+
     private void updateStatistics() {
         if (inventoryService != null) {
-            lblTotalProducts.setText(String.valueOf(inventoryService.getTotalProductsCount()));
-            lblTotalValue.setText(String.format("%.2f €", inventoryService.getTotalInventoryValue()));
-            lblLowStockCount.setText(String.valueOf(inventoryService.getLowStockProducts().size()));
+            lblTotalProducts.setText(strings.number(inventoryService.getTotalProductsCount()));
+            lblTotalValue.setText(strings.amount(inventoryService.getTotalInventoryValue()));
+            lblLowStockCount.setText(strings.number(inventoryService.getLowStockCount()));
         }
     }
 
@@ -161,7 +199,6 @@ public class InventoryController {
                 // Ouvrir la fenêtre d'édition
                 // Note: Implémenter l'ouverture de la fenêtre d'édition
                 AlertUtils.showInfo("Édition", "Édition du produit: " + selectedProduct.getName());
-                refreshData(); // Rafraîchir après édition
             } catch (Exception e) {
                 AlertUtils.showError("Erreur", "Impossible d'éditer le produit: " + e.getMessage());
             }
@@ -180,7 +217,6 @@ public class InventoryController {
 
             if (confirm) {
                 inventoryService.deleteProduct(selectedProduct.getId());
-                refreshData();
                 AlertUtils.showInfo("Suppression", "Produit supprimé avec succès.");
             }
         } else {
@@ -188,7 +224,13 @@ public class InventoryController {
         }
     }
 
+    // Export en arrière-plan ; pendant l'export, le bouton affiche l'avancement et permet d'annuler
     private void exportData() {
+        if (currentExport != null) {
+            currentExport.cancel();
+            return;
+        }
+
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Exporter l'inventaire");
         fileChooser.getExtensionFilters().addAll(
@@ -199,21 +241,29 @@ public class InventoryController {
 
         File file = fileChooser.showSaveDialog(tableView.getScene().getWindow());
         if (file != null) {
-            try {
-                String filePath = file.getAbsolutePath();
-
-                if (filePath.endsWith(".csv")) {
-                    fileService.exportToCSV(new Models.Inventory(), filePath);
-                    AlertUtils.showInfo("Export CSV", "Inventaire exporté en CSV avec succès!");
-                } else if (filePath.endsWith(".pdf")) {
-                    exportService.exportToPDF(new Models.Inventory(), filePath);
-                    AlertUtils.showInfo("Export PDF", "Inventaire exporté en PDF avec succès!");
-                } else {
-                    AlertUtils.showWarning("Format", "Format de fichier non supporté.");
-                }
-            } catch (Exception e) {
-                AlertUtils.showError("Erreur Export", "Erreur lors de l'export: " + e.getMessage());
+            String filePath = file.getAbsolutePath();
+            if (!ExportJobScheduler.isSupported(filePath)) {
+                AlertUtils.showWarning("Format", "Format de fichier non supporté.");
+                return;
             }
+
+            String format = filePath.endsWith(".csv") ? "CSV" : "PDF";
+            String buttonText = btnExport.getText();
+            btnExport.setText("Annuler l'export");
+            currentExport = exportScheduler.submit(filePath,
+                    progress -> btnExport.setText(String.format("Annuler l'export (%d %%)", Math.round(progress * 100))),
+                    job -> {
+                        currentExport = null;
+                        btnExport.setText(buttonText);
+                        switch (job.getStatus()) {
+                            case SUCCEEDED -> AlertUtils.showInfo("Export " + format,
+                                    "Inventaire exporté en " + format + " avec succès!");
+                            case FAILED -> AlertUtils.showError("Erreur Export",
+                                    "Erreur lors de l'export: " + job.getError().getMessage());
+                            case CANCELLED -> AlertUtils.showInfo("Export " + format, "Export annulé.");
+                            default -> { }
+                        }
+                    });
         }
     }
 
@@ -1,7 +1,8 @@
 package Controllers;
 
 import Services.InventoryService;
-import Services.ExportService;       // ✅ Import ajouté
+import Services.ExportJob;
+import Services.ExportJobScheduler;
 import Models.Inventory;             // ✅ Import ajouté
 import Utils.AlertUtils;
 import javafx.fxml.FXML;
@@ -22,9 +23,11 @@ public class MainController {
     @FXML private Button btnExit;
 
     private InventoryService inventoryService;
+    private ExportJobScheduler exportScheduler;
 
     public MainController() {
         this.inventoryService = new InventoryService();
+        this.exportScheduler = new ExportJobScheduler(inventoryService);
     }
 
     @FXML
@@ -84,24 +87,34 @@ public class MainController {
     }
 
     // ✅ Méthode openExportDialog() corrigée
+    // L'export tourne en arrière-plan ; l'avancement s'affiche sur le bouton
     private void openExportDialog() {
         try {
             Inventory inventory = inventoryService.getInventory();
 
-            if (inventory.getProducts().isEmpty()) {
+            if (inventory.getProductCount() == 0) {
                 AlertUtils.showInfo("Export", "Aucun produit à exporter.");
                 return;
             }
 
-            ExportService exportService = new ExportService();
             String filePath = "inventory_report.pdf";
-
-            exportService.exportToPDF(inventory, filePath);
-
-            AlertUtils.showInfo(
-                    "Export réussi",
-                    "Rapport exporté avec succès.\nFichier : " + filePath
-            );
+            String buttonText = btnExportReports.getText();
+            btnExportReports.setDisable(true);
+
+            exportScheduler.submit(filePath,
+                    progress -> btnExportReports.setText(String.format("Export… %d %%", Math.round(progress * 100))),
+                    job -> {
+                        btnExportReports.setText(buttonText);
+                        btnExportReports.setDisable(false);
+                        if (job.getStatus() == ExportJob.Status.SUCCEEDED) {
+                            AlertUtils.showInfo(
+                                    "Export réussi",
+                                    "Rapport exporté avec succès.\nFichier : " + filePath
+                            );
+                        } else if (job.getStatus() == ExportJob.Status.FAILED) {
+                            AlertUtils.showError("Erreur d'export", job.getError().getMessage());
+                        }
+                    });
 
         } catch (Exception e) {
             AlertUtils.showError("Erreur d'export", e.getMessage());
@@ -0,0 +1,339 @@
+package Controllers;
+
+import Models.Product;
+import Services.InventoryChanges;
+import Services.InventoryService;
+import Utils.AlertUtils;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Liste observable en lecture seule pour la TableView : seules les pages demandées
+// (lignes visibles) et leurs voisines sont chargées depuis InventoryService.
+// Le tri est fait par le service (setOrder), pas par la TableView en mémoire, et hors du
+// thread JavaFX : l'ancien ordre reste affiché jusqu'à ce que le nouveau soit prêt.
+// L'ordre trié est ensuite figé : les lignes modifiées restent à leur place, les ajouts et
+// suppressions y sont insérés / retirés par recherche dichotomique.
+public class PagedProductList extends ObservableListBase<Product> {
+
+    private static final int PAGE_SIZE = 256;
+    // Pages visibles + fenêtre de préchargement conservées en mémoire
+    private static final int MAX_CACHED_PAGES = 16;
+    // Au-delà, un lot d'ajouts et de suppressions relance un tri complet en arrière-plan
+    private static final int MAX_INCREMENTAL_CHANGES = 256;
+    private static final Executor SORTER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "inventory-table-sort");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final InventoryService inventoryService;
+    private Comparator<? super Product> order;
+    private List<Product> sorted;
+    private int size;
+    private Map<Integer, List<Product>> pages = newPageCache();
+    // Numéro du dernier rafraîchissement demandé : un tri plus ancien est ignoré
+    private long refreshGeneration;
+    private boolean sortPending;
+    private boolean changedWhileSorting;
+    private boolean resyncPending;
+
+    public PagedProductList(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+        this.size = inventoryService.getTotalProductsCount();
+    }
+
+    @Override
+    public Product get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors de la liste (taille " + size + ")");
+        }
+        int page = index / PAGE_SIZE;
+        List<Product> rows = page(page);
+        int offset = index - page * PAGE_SIZE;
+        if (offset >= rows.size()) {
+            // Produits supprimés avant l'arrivée du lot de changements correspondant : la
+            // taille est périmée. La liste est relue au prochain passage du thread JavaFX
+            // (pas pendant la mise en page de la TableView) ; la ligne reste vide d'ici là
+            scheduleResync();
+            return null;
+        }
+        // La page voisine est chargée dès qu'on approche de sa limite
+        if (offset >= PAGE_SIZE * 3 / 4 && (page + 1) * PAGE_SIZE < size) {
+            page(page + 1);
+        } else if (offset < PAGE_SIZE / 4 && page > 0) {
+            page(page - 1);
+        }
+        return rows.get(offset);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Recherche limitée aux pages chargées : évite de parcourir tout l'inventaire
+    @Override
+    public int indexOf(Object item) {
+        for (Map.Entry<Integer, List<Product>> entry : pages.entrySet()) {
+            int offset = entry.getValue().indexOf(item);
+            if (offset >= 0) {
+                return entry.getKey() * PAGE_SIZE + offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object item) {
+        return indexOf(item);
+    }
+
+    @Override
+    public boolean contains(Object item) {
+        return indexOf(item) >= 0;
+    }
+
+    public Comparator<? super Product> getOrder() {
+        return order;
+    }
+
+    // null : ordre de stockage de l'inventaire
+    public void setOrder(Comparator<? super Product> order) {
+        this.order = order;
+        refresh();
+    }
+
+    // Relit la taille et vide le cache ; les lignes visibles sont rechargées à l'affichage.
+    // Avec un ordre de tri, le tri est lancé en arrière-plan et la liste remplacée à la fin.
+    public void refresh() {
+        long generation = ++refreshGeneration;
+        if (order == null) {
+            sortPending = false;
+            replaceRows(null, inventoryService.getTotalProductsCount());
+            return;
+        }
+        sortPending = true;
+        changedWhileSorting = false;
+        Comparator<? super Product> requested = order;
+        CompletableFuture.supplyAsync(() -> new ArrayList<>(inventoryService.getSortedProducts(requested)), SORTER)
+                .whenComplete((rows, error) -> Platform.runLater(() -> {
+                    if (generation != refreshGeneration) {
+                        return;
+                    }
+                    sortPending = false;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        AlertUtils.showError("Erreur", "Tri de l'inventaire impossible : " + cause.getMessage());
+                        return;
+                    }
+                    replaceRows(rows, rows.size());
+                    // Ajouts ou suppressions pendant le tri : le résultat peut déjà être dépassé
+                    if (changedWhileSorting) {
+                        refresh();
+                    }
+                }));
+    }
+
+    private void scheduleResync() {
+        if (resyncPending) {
+            return;
+        }
+        resyncPending = true;
+        Platform.runLater(() -> {
+            resyncPending = false;
+            refresh();
+        });
+    }
+
+    private void replaceRows(List<Product> rows, int newSize) {
+        int oldSize = size;
+        Map<Integer, List<Product>> oldPages = pages;
+        pages = newPageCache();
+        sorted = rows;
+        size = newSize;
+
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, new StaleRows(oldPages, oldSize));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    // Applique un lot d'InventoryChangeFeed : les lignes chargées qui ont changé sont
+    // remplacées une à une. En ordre de stockage, les ajouts vont en fin de liste et une
+    // suppression relit toute la liste ; dans un ordre trié, ajouts et suppressions sont
+    // appliqués à leur position (un gros lot relance le tri).
+    public void applyChanges(InventoryChanges changes) {
+        boolean structural = !changes.getRemoved().isEmpty() || !changes.getAdded().isEmpty();
+        if (sortPending) {
+            // Tri en cours : il sera relancé à la fin pour tenir compte des ajouts et suppressions
+            changedWhileSorting |= structural;
+        } else if (sorted != null
+                ? changes.getRemoved().size() + changes.getAdded().size() > MAX_INCREMENTAL_CHANGES
+                : !changes.getRemoved().isEmpty() || changes.getProductCount() != size + changes.getAdded().size()) {
+            refresh();
+            return;
+        }
+
+        Map<Integer, Product> updated = new HashMap<>();
+        for (Product product : changes.getUpdated()) {
+            updated.put(product.getId(), product);
+        }
+
+        beginChange();
+        if (!updated.isEmpty()) {
+            for (Map.Entry<Integer, List<Product>> entry : pages.entrySet()) {
+                List<Product> rows = entry.getValue();
+                for (int i = 0; i < rows.size(); i++) {
+                    Product current = updated.get(rows.get(i).getId());
+                    if (current != null && current != rows.get(i)) {
+                        nextSet(entry.getKey() * PAGE_SIZE + i, rows.set(i, current));
+                    } else if (current != null) {
+                        nextUpdate(entry.getKey() * PAGE_SIZE + i);
+                    }
+                }
+            }
+        }
+        if (!sortPending && sorted != null) {
+            for (Product product : changes.getRemoved()) {
+                removeSorted(product);
+            }
+            for (Product product : changes.getAdded()) {
+                insertSorted(product);
+            }
+        } else if (!sortPending && !changes.getAdded().isEmpty()) {
+            // Les nouveaux produits occupent les derniers emplacements de l'inventaire
+            int oldSize = size;
+            size = changes.getProductCount();
+            int lastPage = oldSize / PAGE_SIZE;
+            pages.keySet().removeIf(page -> page >= lastPage);
+            nextAdd(oldSize, size);
+        }
+        endChange();
+    }
+
+    // Position d'après l'ordre ; les valeurs des lignes figées ont pu changer depuis le tri,
+    // la position trouvée est alors approchée
+    private void insertSorted(Product product) {
+        int index = Collections.binarySearch(sorted, product, order);
+        index = index >= 0 ? index : -index - 1;
+        sorted.add(index, product);
+        size++;
+        invalidatePagesFrom(index);
+        nextAdd(index, index + 1);
+    }
+
+    private void removeSorted(Product product) {
+        int index = indexOfId(product);
+        if (index < 0) {
+            return;
+        }
+        List<Product> rows = pages.get(index / PAGE_SIZE);
+        int offset = index % PAGE_SIZE;
+        Product shown = rows != null && offset < rows.size() ? rows.get(offset) : sorted.get(index);
+        sorted.remove(index);
+        size--;
+        invalidatePagesFrom(index);
+        nextRemove(index, shown);
+    }
+
+    // Recherche dichotomique puis parcours des ex aequo ; parcours complet si la ligne figée
+    // n'est plus à la place que ses valeurs actuelles indiquent
+    private int indexOfId(Product product) {
+        int found = Collections.binarySearch(sorted, product, order);
+        if (found >= 0) {
+            for (int i = found; i >= 0 && order.compare(sorted.get(i), product) == 0; i--) {
+                if (sorted.get(i).getId() == product.getId()) {
+                    return i;
+                }
+            }
+            for (int i = found + 1; i < sorted.size() && order.compare(sorted.get(i), product) == 0; i++) {
+                if (sorted.get(i).getId() == product.getId()) {
+                    return i;
+                }
+            }
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getId() == product.getId()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void invalidatePagesFrom(int index) {
+        int firstPage = index / PAGE_SIZE;
+        pages.keySet().removeIf(page -> page >= firstPage);
+    }
+
+    private List<Product> page(int page) {
+        List<Product> rows = pages.get(page);
+        if (rows == null) {
+            rows = sorted != null ? sortedPage(page) : inventoryService.getProductsPage(page * PAGE_SIZE, PAGE_SIZE);
+            pages.put(page, rows);
+        }
+        return rows;
+    }
+
+    // Page de l'ordre figé, avec l'état actuel de chaque produit
+    private List<Product> sortedPage(int page) {
+        int from = Math.min(page * PAGE_SIZE, sorted.size());
+        int to = Math.min(from + PAGE_SIZE, sorted.size());
+        List<Product> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Product current = inventoryService.getProductById(sorted.get(i).getId());
+            rows.add(current != null ? current : sorted.get(i));
+        }
+        return rows;
+    }
+
+    private static Map<Integer, List<Product>> newPageCache() {
+        return new LinkedHashMap<>(MAX_CACHED_PAGES * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Product>> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+    }
+
+    // Éléments retirés lors d'un rafraîchissement : seules les pages encore en cache sont
+    // connues, les autres lignes valent null (elles n'ont jamais été affichées)
+    private static class StaleRows extends AbstractList<Product> {
+        private final Map<Integer, List<Product>> pages;
+        private final int size;
+
+        StaleRows(Map<Integer, List<Product>> pages, int size) {
+            this.pages = pages;
+            this.size = size;
+        }
+
+        @Override
+        public Product get(int index) {
+            List<Product> rows = pages.get(index / PAGE_SIZE);
+            int offset = index % PAGE_SIZE;
+            return rows != null && offset < rows.size() ? rows.get(offset) : null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
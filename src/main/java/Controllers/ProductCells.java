@@ -0,0 +1,84 @@
+package Controllers;
+
+import Models.Product;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.util.Callback;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+// Rendu des cellules de la table des produits sans fabrique de valeurs : chaque cellule lit
+// le Product de sa ligne et affiche une chaîne calculée par un moteur de rendu (sans
+// réflexion ni propriété intermédiaire). Les cellules vivantes sont suivies pour pouvoir
+// redessiner celles d'un produit modifié sur place.
+public class ProductCells {
+
+    private final Set<ProductCell<?>> liveCells = Collections.newSetFromMap(new WeakHashMap<>());
+
+    public <T> Callback<TableColumn<Product, T>, TableCell<Product, T>> factory(Function<Product, String> text) {
+        return factory(text, null);
+    }
+
+    // style peut être null ; il doit retourner des chaînes constantes
+    public <T> Callback<TableColumn<Product, T>, TableCell<Product, T>> factory(
+            Function<Product, String> text, Function<Product, String> style) {
+        return column -> {
+            ProductCell<T> cell = new ProductCell<>(text, style);
+            liveCells.add(cell);
+            return cell;
+        };
+    }
+
+    // Redessine les cellules affichant l'un des produits donnés
+    public void refresh(Set<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        for (ProductCell<?> cell : liveCells) {
+            Product product = cell.rowProduct();
+            if (product != null && productIds.contains(product.getId())) {
+                cell.render(product);
+            }
+        }
+    }
+
+    private static class ProductCell<T> extends TableCell<Product, T> {
+        private final Function<Product, String> text;
+        private final Function<Product, String> style;
+
+        ProductCell(Function<Product, String> text, Function<Product, String> style) {
+            this.text = text;
+            this.style = style;
+        }
+
+        @Override
+        protected void updateItem(T item, boolean empty) {
+            super.updateItem(item, empty);
+            Product product = empty ? null : rowProduct();
+            if (product == null) {
+                setText(null);
+                if (style != null) {
+                    setStyle("");
+                }
+            } else {
+                render(product);
+            }
+        }
+
+        Product rowProduct() {
+            TableRow<Product> row = getTableRow();
+            return row == null || isEmpty() ? null : row.getItem();
+        }
+
+        void render(Product product) {
+            setText(text.apply(product));
+            if (style != null) {
+                setStyle(style.apply(product));
+            }
+        }
+    }
+}
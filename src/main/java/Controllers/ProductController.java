@@ -180,12 +180,11 @@ public class ProductController {
         return true;
     }
 
+    // En modification, part d'une copie du produit : l'instance affichée est celle de
+    // l'inventaire (updateProduct refuse un produit modifié sur place), et les champs absents
+    // du formulaire, comme la quantité réservée, sont conservés
     private Product createProductFromFields() {
-        Product product = new Product();
-
-        if (isEditMode && currentProduct != null) {
-            product.setId(currentProduct.getId());
-        }
+        Product product = isEditMode && currentProduct != null ? currentProduct.copy() : new Product();
 
         product.setName(txtName.getText());
         product.setDescription(txtDescription.getText());
@@ -0,0 +1,40 @@
+package Models;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdSequence implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Dernier identifiant attribué (ou observé)
+    private final AtomicInteger last;
+
+    public IdSequence() {
+        this(0);
+    }
+
+    public IdSequence(int last) {
+        this.last = new AtomicInteger(last);
+    }
+
+    public int next() {
+        return last.incrementAndGet();
+    }
+
+    // Réserve une plage contiguë et retourne son premier identifiant
+    public int reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("La plage réservée doit contenir au moins un identifiant.");
+        }
+        return last.getAndAdd(count) + 1;
+    }
+
+    // Signale un identifiant attribué hors séquence (chargement, ID explicite)
+    public void observe(int id) {
+        last.accumulateAndGet(id, Math::max);
+    }
+
+    public int getLast() {
+        return last.get();
+    }
+}
@@ -0,0 +1,126 @@
+package Models;
+
+import java.util.Arrays;
+
+// Table int -> int à adressage ouvert (sondage linéaire), sans objet par entrée : remplace
+// un HashMap<Integer, Integer> (environ 70 octets par entrée) par deux tableaux d'int.
+// Comme pour HashMap, une lecture concurrente d'une écriture peut voir un état intermédiaire ;
+// les lectures optimistes de l'inventaire sont revalidées (voir InventoryService).
+public class IntIntMap {
+    public static final int NO_VALUE = -1;
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int get(int key) {
+        int[] k = keys;
+        int mask = k.length - 1;
+        for (int i = hash(key) & mask, probes = 0; probes < k.length; i = (i + 1) & mask, probes++) {
+            if (k[i] == key) {
+                return values[i];
+            }
+            if (k[i] == FREE) {
+                return NO_VALUE;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != NO_VALUE;
+    }
+
+    // Retourne l'ancienne valeur, ou NO_VALUE
+    public int put(int key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Clé réservée : " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return NO_VALUE;
+    }
+
+    // Retourne la valeur retirée, ou NO_VALUE
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != key) {
+            if (keys[i] == FREE) {
+                return NO_VALUE;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        // Recule les entrées suivantes de la même grappe qui ne sont plus atteignables
+        for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean reachable = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!reachable) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = FREE;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != FREE) {
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        int[] newKeys = new int[capacity];
+        Arrays.fill(newKeys, FREE);
+        values = new int[capacity];
+        keys = newKeys;
+    }
+
+    // Puissance de deux, taux de remplissage d'au plus 1/2
+    static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,8 +1,19 @@
 package Models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
 
 public class Inventory implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -11,101 +22,692 @@ public class Inventory implements Serializable {
     private List<Category> categories;
     private List<Supplier> suppliers;
 
+    // Séquences d'identifiants (persistées avec l'inventaire)
+    private IdSequence productIds;
+    private IdSequence categoryIds;
+    private IdSequence supplierIds;
+
+    // Index primaires (reconstruits après désérialisation)
+    private transient IntIntMap slotById;
+    private transient SkuIndex idBySku;
+
+    // Agrégats tenus à jour à chaque ajout, modification ou suppression.
+    // Ils acceptent des écritures concurrentes (voir tryReplaceProduct).
+    private transient DoubleAdder totalValue;
+    private transient SlotBitSet lowStockSlots; // par emplacement : aucun Product retenu
+    private transient AtomicInteger lowStockCount;
+
+    // Descriptions et emplacements partagés par les produits sur le tas de cet inventaire,
+    // comptés par référence (les vues hors tas et les produits paresseux n'y passent pas)
+    private transient StringPool descriptions;
+    private transient StringPool locations;
+
+    // Copie en colonnes optionnelle pour les agrégations (null si désactivée)
+    private transient ProductColumns columns;
+
+    // Verrous par tranche d'ID : écriture pour remplacer un produit,
+    // lecture pour les mouvements de stock (qui progressent ensuite par CAS)
+    private static final int STRIPES = 64;
+    private transient StampedLock[] stripes;
+    // Moniteurs des bascules de stock faible, par tranche d'ID (les vues hors tas d'un
+    // même produit sont des objets distincts, voir OffHeapProduct)
+    private transient Object[] lowStockMonitors;
+
+    // Observateurs des mutations (journal, notifications)
+    private transient List<InventoryListener> listeners;
+
     public Inventory() {
+        this(true);
+    }
+
+    private Inventory(boolean withSampleData) {
         this.products = new ArrayList<>();
         this.categories = new ArrayList<>();
         this.suppliers = new ArrayList<>();
-        initializeSampleData();
+        this.productIds = new IdSequence();
+        this.categoryIds = new IdSequence();
+        this.supplierIds = new IdSequence();
+        this.slotById = new IntIntMap(16);
+        this.idBySku = new SkuIndex(this::getProductById, 16);
+        initializeConcurrentState();
+        if (withSampleData) {
+            initializeSampleData();
+        }
+    }
+
+    // Inventaire vide, sans données d'exemple (chargement de fichier, import)
+    public static Inventory createEmpty() {
+        return new Inventory(false);
+    }
+
+    // Chargement paresseux : les produits restent dans la source de la liste et seuls
+    // leurs champs indexés sont fournis, emplacement par emplacement, via indexLazyProduct
+    public void attachLazyProducts(LazyProductList lazyProducts) {
+        if (!products.isEmpty()) {
+            throw new IllegalStateException("Le chargement paresseux nécessite un inventaire sans produits.");
+        }
+        products = lazyProducts;
+    }
+
+    public void indexLazyProduct(int slot, int id, String sku, double productValue, boolean lowStock) {
+        slotById.put(id, slot);
+        productIds.observe(id);
+        if (sku != null) {
+            idBySku.put(Product.encodeSku(sku), id);
+        }
+        totalValue.add(productValue);
+        lowStockSlots.ensureCapacity(slot + 1);
+        if (lowStock && lowStockSlots.set(slot)) {
+            lowStockCount.incrementAndGet();
+        }
     }
 
     private void initializeSampleData() {
         // Catégories par défaut
-        categories.add(new Category(1, "Électronique", "Appareils électroniques"));
-        categories.add(new Category(2, "Bureau", "Fournitures de bureau"));
-        categories.add(new Category(3, "Nourriture", "Produits alimentaires"));
+        addCategory(new Category(1, "Électronique", "Appareils électroniques"));
+        addCategory(new Category(2, "Bureau", "Fournitures de bureau"));
+        addCategory(new Category(3, "Nourriture", "Produits alimentaires"));
 
         // Fournisseurs par défaut
-        suppliers.add(new Supplier(1, "TechCorp", "Jean Dupont", "0123456789", "contact@techcorp.com", "Paris"));
-        suppliers.add(new Supplier(2, "OfficePlus", "Marie Martin", "0987654321", "info@officeplus.com", "Lyon"));
+        addSupplier(new Supplier(1, "TechCorp", "Jean Dupont", "0123456789", "contact@techcorp.com", "Paris"));
+        addSupplier(new Supplier(2, "OfficePlus", "Marie Martin", "0987654321", "info@officeplus.com", "Lyon"));
 
         // Produits par défaut
-        products.add(new Product(1, "Ordinateur Portable", "PC portable haute performance", 999.99, 10, 2,
+        addProduct(new Product(1, "Ordinateur Portable", "PC portable haute performance", 999.99, 10, 2,
                 categories.get(0), suppliers.get(0), "ELEC-001"));
-        products.add(new Product(2, "Stylo", "Stylo bleu à bille", 1.99, 100, 20,
+        addProduct(new Product(2, "Stylo", "Stylo bleu à bille", 1.99, 100, 20,
                 categories.get(1), suppliers.get(1), "BUR-001"));
     }
 
-    // Getters
-    public List<Product> getProducts() { return new ArrayList<>(products); }
-    public List<Category> getCategories() { return new ArrayList<>(categories); }
-    public List<Supplier> getSuppliers() { return new ArrayList<>(suppliers); }
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (productIds == null) {
+            // Fichier antérieur aux séquences : on repart du plus grand ID connu
+            productIds = new IdSequence(products.stream().mapToInt(Product::getId).max().orElse(0));
+            categoryIds = new IdSequence(categories.stream().mapToInt(Category::getId).max().orElse(0));
+            supplierIds = new IdSequence(suppliers.stream().mapToInt(Supplier::getId).max().orElse(0));
+        }
+        initializeConcurrentState();
+        rebuildIndexes();
+    }
+
+    private void initializeConcurrentState() {
+        descriptions = new StringPool();
+        locations = new StringPool();
+        totalValue = new DoubleAdder();
+        lowStockSlots = new SlotBitSet(products.size());
+        lowStockCount = new AtomicInteger();
+        stripes = new StampedLock[STRIPES];
+        lowStockMonitors = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+            lowStockMonitors[i] = new Object();
+        }
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+    public void addListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(InventoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Copie profonde des produits (catégories et fournisseurs partagés) ; à appeler
+    // sans écriture concurrente pour obtenir un instantané cohérent.
+    // Un inventaire hors tas est copié dans un nouveau stockage hors tas, enregistrement par
+    // enregistrement depuis les vues : le catalogue ne repasse pas sur le tas
+    public Inventory copy() {
+        Inventory copy = createEmpty();
+        categories.forEach(copy::addCategory);
+        suppliers.forEach(copy::addSupplier);
+        boolean offHeap = products instanceof OffHeapProductList;
+        if (offHeap) {
+            copy.enableOffHeapStore();
+        }
+        forEachProduct(product -> copy.addProduct(offHeap ? product : product.copy()));
+        copy.productIds.observe(productIds.getLast());
+        copy.categoryIds.observe(categoryIds.getLast());
+        copy.supplierIds.observe(supplierIds.getLast());
+        return copy;
+    }
+
+    private StampedLock stripeFor(int productId) {
+        return stripes[Math.floorMod(productId, STRIPES)];
+    }
+
+    private void rebuildIndexes() {
+        slotById = new IntIntMap(products.size());
+        idBySku = new SkuIndex(this::getProductById, products.size());
+        lowStockSlots = new SlotBitSet(products.size());
+        lowStockCount.set(0);
+        totalValue.reset();
+        descriptions = new StringPool();
+        locations = new StringPool();
+        for (int slot = 0; slot < products.size(); slot++) {
+            Product product = products.get(slot);
+            slotById.put(product.getId(), slot);
+            index(product);
+        }
+        if (columns != null) {
+            enableColumnarStore();
+        }
+    }
+
+    // Active (ou reconstruit) la copie en colonnes des produits
+    public void enableColumnarStore() {
+        ProductColumns rebuilt = new ProductColumns(products.size());
+        for (Product product : products) {
+            rebuilt.append(product);
+        }
+        columns = rebuilt;
+    }
+
+    public void disableColumnarStore() {
+        columns = null;
+    }
+
+    public ProductColumns getColumns() {
+        return columns;
+    }
+
+    // Déplace le contenu des produits hors du tas (catalogues de plusieurs millions de produits) :
+    // le tas ne garde que les index primitifs et les pauses du GC ne dépendent plus du nombre
+    // de produits. Les produits sont ensuite lus par des vues jetables (voir OffHeapProduct).
+    // Les chaînes remplacées sont récupérées par compactage (voir compactOffHeapStoreIfDue).
+    public void enableOffHeapStore() {
+        OffHeapProductList offHeap = new OffHeapProductList(products.size());
+        forEachProduct(offHeap::add);
+        products = offHeap;
+        rebuildIndexes();
+    }
+
+    public void disableOffHeapStore() {
+        if (!(products instanceof OffHeapProductList)) {
+            return;
+        }
+        List<Product> onHeap = new ArrayList<>(products.size());
+        forEachProduct(product -> onHeap.add(product.copy()));
+        products = onHeap;
+        rebuildIndexes();
+    }
+
+    public OffHeapProductStore getOffHeapStore() {
+        return products instanceof OffHeapProductList ? ((OffHeapProductList) products).getStore() : null;
+    }
+
+    // Compacte l'arène des chaînes hors tas quand les chaînes mortes y dominent. Appelé par
+    // updateProduct et deleteProduct ; après tryReplaceProduct, à l'appelant de le faire
+    // (accès exclusif nécessaire)
+    public void compactOffHeapStoreIfDue() {
+        OffHeapProductStore store = getOffHeapStore();
+        if (store != null && store.isCompactionDue()) {
+            store.compactStrings();
+        }
+    }
+
+    private void syncColumnQuantity(Product product) {
+        if (columns == null) {
+            return;
+        }
+        int slot = slotById.get(product.getId());
+        int quantity;
+        do {
+            quantity = product.getQuantityVolatile();
+            columns.setQuantity(slot, quantity);
+        } while (quantity != product.getQuantityVolatile());
+    }
+
+    private void index(Product product) {
+        if (sharesStrings()) {
+            product.shareStrings(descriptions, locations);
+        }
+        if (product.getSkuBytes() != null) {
+            idBySku.put(product.getSkuBytes(), product.getId());
+        }
+        totalValue.add(product.getTotalValue());
+        updateLowStock(product);
+    }
+
+    private void unindex(Product product, int slot) {
+        if (sharesStrings()) {
+            product.releaseStrings(descriptions, locations);
+        }
+        if (product.getSkuBytes() != null) {
+            idBySku.remove(product.getSkuBytes(), product.getId());
+        }
+        totalValue.add(-product.getTotalValue());
+        if (lowStockSlots.clear(slot)) {
+            lowStockCount.decrementAndGet();
+        }
+        if (products.isEmpty()) {
+            totalValue.reset(); // évite de garder une erreur d'arrondi résiduelle
+        }
+    }
+
+    // Produits sur le tas, conservés tels quels par la liste
+    private boolean sharesStrings() {
+        return products instanceof ArrayList;
+    }
+
+    // Nombre de descriptions et d'emplacements distincts partagés
+    public int getSharedStringCount() {
+        return descriptions.size() + locations.size();
+    }
+
+    private void updateLowStock(Product product) {
+        updateLowStock(product, product.isLowStock());
+    }
+
+    private void updateLowStock(Product product, boolean lowStock) {
+        int slot = slotById.get(product.getId());
+        if (lowStock) {
+            if (lowStockSlots.set(slot)) {
+                lowStockCount.incrementAndGet();
+            }
+        } else if (lowStockSlots.clear(slot)) {
+            lowStockCount.decrementAndGet();
+        }
+    }
+
+    private boolean isMarkedLowStock(int productId) {
+        return lowStockSlots.get(slotById.get(productId));
+    }
+
+    // Getters (vues en lecture seule, sans copie)
+    public List<Product> getProducts() { return Collections.unmodifiableList(products); }
+    public List<Category> getCategories() { return Collections.unmodifiableList(categories); }
+    public List<Supplier> getSuppliers() { return Collections.unmodifiableList(suppliers); }
+
+    // Parcours paginé : les produits occupent des emplacements contigus [0, getProductCount())
+    public List<Product> getProductsPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset et limit doivent être positifs.");
+        }
+        int from = Math.min(offset, products.size());
+        int to = (int) Math.min((long) from + limit, products.size());
+        return Collections.unmodifiableList(products.subList(from, to));
+    }
+
+    public void forEachProduct(Consumer<? super Product> action) {
+        for (int slot = 0; slot < products.size(); slot++) {
+            action.accept(products.get(slot));
+        }
+    }
 
     // Méthodes de gestion des produits
     public void addProduct(Product product) {
+        checkSkuAvailable(product.getSkuBytes(), null);
         if (product.getId() == 0) {
-            product.setId(generateProductId());
+            product.setId(productIds.next());
+        } else if (slotById.containsKey(product.getId())) {
+            throw new IllegalArgumentException("Un produit avec l'ID " + product.getId() + " existe déjà.");
+        } else {
+            productIds.observe(product.getId());
         }
+        int slot = products.size();
+        slotById.put(product.getId(), slot);
         products.add(product);
+        lowStockSlots.ensureCapacity(slot + 1);
+        // Le produit stocké peut être une vue sur une copie (voir enableOffHeapStore)
+        Product added = products.get(slot);
+        index(added);
+        if (columns != null) {
+            columns.append(added);
+        }
+        RuntimeException failure = notifyListeners(null, l -> l.productAdded(added));
+        rethrow(lowStockChanged(added, false, failure));
     }
 
     public void updateProduct(Product updatedProduct) {
-        for (int i = 0; i < products.size(); i++) {
-            if (products.get(i).getId() == updatedProduct.getId()) {
-                products.set(i, updatedProduct);
-                break;
+        int slot = slotById.get(updatedProduct.getId());
+        if (slot == IntIntMap.NO_VALUE) {
+            return;
+        }
+        Product previous = products.get(slot);
+        if (previous == updatedProduct) {
+            // Les anciennes valeurs (SKU, valeur, stock faible) ne seraient plus connues :
+            // les index ne pourraient être corrigés qu'en les reconstruisant entièrement
+            throw new IllegalArgumentException("Le produit " + updatedProduct.getId()
+                    + " a été modifié sur place : passer une copie (Product.copy()) à updateProduct.");
+        }
+        boolean wasLowStock = isMarkedLowStock(updatedProduct.getId());
+        checkSkuAvailable(updatedProduct.getSkuBytes(), previous);
+        unindex(previous, slot);
+        // Ancien contenu : copie si previous est une vue, que l'écriture vient de modifier
+        Product replaced = products.set(slot, updatedProduct);
+        Product current = products.get(slot);
+        index(current);
+        if (columns != null) {
+            columns.set(slot, current);
+        }
+        RuntimeException failure = notifyListeners(null, l -> l.productUpdated(replaced, current));
+        failure = lowStockChanged(current, wasLowStock, failure);
+        compactOffHeapStoreIfDue();
+        rethrow(failure);
+    }
+
+    // Remplace un produit existant sans toucher aux index structurels (même ID, même SKU).
+    // Peut s'exécuter en parallèle pour des IDs différents tant qu'aucun ajout ou
+    // suppression n'a lieu ; retourne false si updateProduct est nécessaire.
+    public boolean tryReplaceProduct(Product updatedProduct) {
+        StampedLock stripe = stripeFor(updatedProduct.getId());
+        long stamp = stripe.writeLock();
+        try {
+            int slot = slotById.get(updatedProduct.getId());
+            if (slot == IntIntMap.NO_VALUE) {
+                return false;
+            }
+            Product previous = products.get(slot);
+            if (previous == updatedProduct || !Arrays.equals(previous.getSkuBytes(), updatedProduct.getSkuBytes())) {
+                return false;
+            }
+            boolean wasLowStock = isMarkedLowStock(updatedProduct.getId());
+            boolean sharesStrings = sharesStrings();
+            if (sharesStrings) {
+                updatedProduct.shareStrings(descriptions, locations);
+            }
+            Product replaced = products.set(slot, updatedProduct);
+            Product current = products.get(slot);
+            if (sharesStrings) {
+                replaced.releaseStrings(descriptions, locations);
+            }
+            if (columns != null) {
+                columns.set(slot, current);
+            }
+            totalValue.add(current.getTotalValue() - replaced.getTotalValue());
+            updateLowStock(current);
+            RuntimeException failure = notifyListeners(null, l -> l.productUpdated(replaced, current));
+            rethrow(lowStockChanged(current, wasLowStock, failure));
+            return true;
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    // Mouvements de stock : CAS sur la quantité du produit, sans verrou exclusif.
+    // Comme tryReplaceProduct, ils supposent qu'aucun ajout ou suppression n'a lieu en parallèle.
+    public int adjustQuantity(int productId, int delta) {
+        StampedLock stripe = stripeFor(productId);
+        long stamp = stripe.readLock();
+        try {
+            Product product = requireProduct(productId);
+            int current;
+            int updated;
+            do {
+                current = product.getQuantityVolatile();
+                updated = Math.addExact(current, delta);
+                if (updated < 0) {
+                    throw new IllegalStateException("Stock insuffisant pour " + product.getName()
+                            + " : " + current + " disponible(s), mouvement de " + delta + ".");
+                }
+            } while (!product.compareAndSetQuantity(current, updated));
+            totalValue.add(delta * product.getPrice());
+            RuntimeException failure = reconcileLowStock(product);
+            syncColumnQuantity(product);
+            rethrow(notifyListeners(failure, l -> l.stockMoved(product, delta, 0)));
+            return updated;
+        } finally {
+            stripe.unlockRead(stamp);
+        }
+    }
+
+    // Retire n unités du stock disponible et les garde en réservation
+    public void reserve(int productId, int count) {
+        checkPositive(count);
+        StampedLock stripe = stripeFor(productId);
+        long stamp = stripe.readLock();
+        try {
+            Product product = requireProduct(productId);
+            int current;
+            do {
+                current = product.getQuantityVolatile();
+                if (current < count) {
+                    throw new IllegalStateException("Stock insuffisant pour réserver " + count + " unité(s) de "
+                            + product.getName() + " (" + current + " disponible(s)).");
+                }
+            } while (!product.compareAndSetQuantity(current, current - count));
+            int reserved;
+            do {
+                reserved = product.getReservedQuantityVolatile();
+            } while (!product.compareAndSetReservedQuantity(reserved, reserved + count));
+            totalValue.add(-count * product.getPrice());
+            RuntimeException failure = reconcileLowStock(product);
+            syncColumnQuantity(product);
+            rethrow(notifyListeners(failure, l -> l.stockMoved(product, -count, count)));
+        } finally {
+            stripe.unlockRead(stamp);
+        }
+    }
+
+    // Rend au stock disponible n unités précédemment réservées
+    public void release(int productId, int count) {
+        checkPositive(count);
+        StampedLock stripe = stripeFor(productId);
+        long stamp = stripe.readLock();
+        try {
+            Product product = requireProduct(productId);
+            int reserved;
+            do {
+                reserved = product.getReservedQuantityVolatile();
+                if (reserved < count) {
+                    throw new IllegalStateException("Impossible de libérer " + count + " unité(s) de "
+                            + product.getName() + " : seulement " + reserved + " réservée(s).");
+                }
+            } while (!product.compareAndSetReservedQuantity(reserved, reserved - count));
+            int current;
+            do {
+                current = product.getQuantityVolatile();
+            } while (!product.compareAndSetQuantity(current, current + count));
+            totalValue.add(count * product.getPrice());
+            RuntimeException failure = reconcileLowStock(product);
+            syncColumnQuantity(product);
+            rethrow(notifyListeners(failure, l -> l.stockMoved(product, count, -count)));
+        } finally {
+            stripe.unlockRead(stamp);
+        }
+    }
+
+    // Rejoue un mouvement de stock journalisé, sans contrôle de stock négatif : l'ordre
+    // des mouvements concurrents dans le journal peut différer de celui des CAS,
+    // seule la somme finale compte. Nécessite l'accès exclusif.
+    public void replayStockMovement(int productId, int quantityDelta, int reservedDelta) {
+        Product product = requireProduct(productId);
+        product.setQuantityVolatile(product.getQuantityVolatile() + quantityDelta);
+        product.setReservedQuantityVolatile(product.getReservedQuantityVolatile() + reservedDelta);
+        totalValue.add(quantityDelta * product.getPrice());
+        boolean wasLowStock = isMarkedLowStock(productId);
+        updateLowStock(product);
+        syncColumnQuantity(product);
+        rethrow(lowStockChanged(product, wasLowStock, null));
+    }
+
+    // Aligne l'appartenance au stock faible sur la quantité courante. Chaque écriture est
+    // suivie d'une relecture : un mouvement concurrent ne peut pas laisser un état périmé.
+    // Chaque bascule est signalée sous le moniteur de sa tranche : entre mouvements concurrents,
+    // une seule voit la bascule et les événements sortent dans l'ordre des bascules.
+    private RuntimeException reconcileLowStock(Product product) {
+        RuntimeException failure = null;
+        boolean lowStock;
+        do {
+            lowStock = product.getQuantityVolatile() <= product.getMinStockLevel();
+            synchronized (lowStockMonitors[Math.floorMod(product.getId(), STRIPES)]) {
+                boolean wasLowStock = isMarkedLowStock(product.getId());
+                updateLowStock(product, lowStock);
+                failure = lowStockChanged(product, wasLowStock, failure);
+            }
+        } while ((product.getQuantityVolatile() <= product.getMinStockLevel()) != lowStock);
+        return failure;
+    }
+
+    private RuntimeException lowStockChanged(Product product, boolean wasLowStock, RuntimeException failure) {
+        boolean lowStock = isMarkedLowStock(product.getId());
+        if (lowStock != wasLowStock) {
+            return notifyListeners(failure, l -> l.lowStockChanged(product, lowStock));
+        }
+        return failure;
+    }
+
+    // Chaque écouteur est prévenu même si un précédent échoue (journal en échec par exemple) :
+    // la mutation est appliquée, un index non prévenu resterait faux jusqu'à la fin du processus.
+    // Le premier échec est relancé par l'appelant, les suivants y sont joints, une fois toutes
+    // les notifications de la mutation faites
+    private RuntimeException notifyListeners(RuntimeException failure, Consumer<InventoryListener> event) {
+        for (InventoryListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
             }
         }
+        return failure;
     }
 
+    private static void rethrow(RuntimeException failure) {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Product requireProduct(int productId) {
+        Product product = getProductById(productId);
+        if (product == null) {
+            throw new IllegalArgumentException("Aucun produit avec l'ID " + productId + ".");
+        }
+        return product;
+    }
+
+    private static void checkPositive(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("La quantité doit être strictement positive.");
+        }
+    }
+
+    // Le dernier produit prend la place du produit supprimé (suppression en O(1))
     public void deleteProduct(int productId) {
-        products.removeIf(p -> p.getId() == productId);
+        int slot = slotById.remove(productId);
+        if (slot == IntIntMap.NO_VALUE) {
+            return;
+        }
+        int lastSlot = products.size() - 1;
+        Product removed;
+        if (slot != lastSlot) {
+            Product last = products.get(lastSlot);
+            removed = products.set(slot, last);
+            slotById.put(last.getId(), slot);
+            products.remove(lastSlot);
+        } else {
+            removed = products.remove(lastSlot);
+        }
+        if (columns != null) {
+            columns.removeSwap(slot);
+        }
+        unindex(removed, slot);
+        if (slot != lastSlot) {
+            lowStockSlots.move(lastSlot, slot);
+        }
+        RuntimeException failure = notifyListeners(null, l -> l.productRemoved(removed));
+        compactOffHeapStoreIfDue();
+        rethrow(failure);
     }
 
     public Product getProductById(int id) {
-        return products.stream()
-                .filter(p -> p.getId() == id)
-                .findFirst()
-                .orElse(null);
+        int slot = slotById.get(id);
+        return slot != IntIntMap.NO_VALUE ? products.get(slot) : null;
+    }
+
+    public Product getProductBySku(String sku) {
+        int id = sku != null ? idBySku.get(sku) : SkuIndex.NO_ID;
+        return id != SkuIndex.NO_ID ? getProductById(id) : null;
+    }
+
+    // Comparé sous forme encodée : getSku décoderait une nouvelle String à chaque appel
+    private void checkSkuAvailable(byte[] sku, Product owner) {
+        if (sku == null) {
+            return;
+        }
+        int existingId = idBySku.get(sku);
+        if (existingId != SkuIndex.NO_ID && (owner == null || existingId != owner.getId())) {
+            throw new IllegalArgumentException("Le SKU " + new String(sku, StandardCharsets.UTF_8)
+                    + " est déjà utilisé par le produit "
+                    + getProductById(existingId).getName() + ".");
+        }
     }
 
     // Méthodes de gestion des catégories
     public void addCategory(Category category) {
         if (category.getId() == 0) {
-            category.setId(generateCategoryId());
+            category.setId(categoryIds.next());
+        } else {
+            categoryIds.observe(category.getId());
         }
         categories.add(category);
+        rethrow(notifyListeners(null, l -> l.categoryAdded(category)));
+    }
+
+    public Category getCategoryById(int id) {
+        for (Category category : categories) {
+            if (category.getId() == id) {
+                return category;
+            }
+        }
+        return null;
     }
 
     // Méthodes de gestion des fournisseurs
     public void addSupplier(Supplier supplier) {
         if (supplier.getId() == 0) {
-            supplier.setId(generateSupplierId());
+            supplier.setId(supplierIds.next());
+        } else {
+            supplierIds.observe(supplier.getId());
         }
         suppliers.add(supplier);
+        rethrow(notifyListeners(null, l -> l.supplierAdded(supplier)));
+    }
+
+    public Supplier getSupplierById(int id) {
+        for (Supplier supplier : suppliers) {
+            if (supplier.getId() == id) {
+                return supplier;
+            }
+        }
+        return null;
     }
 
     // Méthodes utilitaires
-    private int generateProductId() {
-        return products.stream().mapToInt(Product::getId).max().orElse(0) + 1;
+    public IdSequence getProductIdSequence() { return productIds; }
+    public IdSequence getCategoryIdSequence() { return categoryIds; }
+    public IdSequence getSupplierIdSequence() { return supplierIds; }
+
+    // Réserve des IDs consécutifs pour un import en masse ; retourne le premier
+    public int reserveProductIds(int count) {
+        return productIds.reserve(count);
     }
 
-    private int generateCategoryId() {
-        return categories.stream().mapToInt(Category::getId).max().orElse(0) + 1;
+    public List<Product> getLowStockProducts() {
+        List<Product> lowStock = new ArrayList<>(lowStockCount.get());
+        for (int slot = lowStockSlots.nextSetBit(0); slot >= 0 && slot < products.size();
+             slot = lowStockSlots.nextSetBit(slot + 1)) {
+            lowStock.add(products.get(slot));
+        }
+        lowStock.sort(Comparator.comparingInt(Product::getId));
+        return lowStock;
     }
 
-    private int generateSupplierId() {
-        return suppliers.stream().mapToInt(Supplier::getId).max().orElse(0) + 1;
+    public int getLowStockCount() {
+        return lowStockCount.get();
     }
 
-    public List<Product> getLowStockProducts() {
-        return products.stream()
-                .filter(Product::isLowStock)
-                .toList();
+    public int getProductCount() {
+        return products.size();
     }
 
     public double getTotalInventoryValue() {
-        return products.stream()
-                .mapToDouble(Product::getTotalValue)
-                .sum();
+        return totalValue.sum();
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package Models;
+
+// Observateur des mutations d'un Inventory. Les méthodes sont appelées dans la section
+// critique de la mutation (pour un même produit, dans l'ordre où elles ont été appliquées) :
+// elles doivent rester courtes et ne jamais rappeler l'inventaire en écriture.
+public interface InventoryListener {
+
+    default void productAdded(Product product) {}
+
+    // previous : état avant la modification, toujours distinct de current (updateProduct
+    // refuse un produit modifié sur place : l'appelant transmet une copie, voir Product.copy)
+    default void productUpdated(Product previous, Product current) {}
+
+    default void productRemoved(Product product) {}
+
+    // Mouvement de stock : variation de la quantité disponible et de la quantité réservée
+    default void stockMoved(Product product, int quantityDelta, int reservedDelta) {}
+
+    // Le produit passe sous son seuil de stock (lowStock) ou revient au-dessus : une seule
+    // fois par bascule, ajout d'un produit déjà sous le seuil compris (pas à la suppression)
+    default void lowStockChanged(Product product, boolean lowStock) {}
+
+    default void categoryAdded(Category category) {}
+
+    default void supplierAdded(Supplier supplier) {}
+}
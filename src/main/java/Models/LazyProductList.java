@@ -0,0 +1,130 @@
+package Models;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// Liste de produits matérialisés à la demande à partir d'une source externe
+// (fichier mappé en mémoire). Un emplacement n'est décodé qu'au premier accès ;
+// les ajouts, remplacements et suppressions fonctionnent comme sur une ArrayList.
+public class LazyProductList extends AbstractList<Product> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Décode le produit d'un emplacement de la source
+    public interface Decoder {
+        Product decode(int slot);
+    }
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Product[].class);
+
+    private final transient Decoder decoder;
+    private final int sourceSize;
+    private Product[] slots;
+    private int size;
+    // Emplacement de la source d'où provient chaque emplacement courant (-1 = déjà en mémoire)
+    private int[] sourceSlots;
+
+    public LazyProductList(int sourceSize, Decoder decoder) {
+        this.decoder = decoder;
+        this.sourceSize = sourceSize;
+        this.size = sourceSize;
+        this.slots = new Product[Math.max(16, sourceSize)];
+        this.sourceSlots = new int[slots.length];
+        for (int i = 0; i < sourceSize; i++) {
+            sourceSlots[i] = i;
+        }
+        Arrays.fill(sourceSlots, sourceSize, sourceSlots.length, -1);
+    }
+
+    @Override
+    public Product get(int index) {
+        checkIndex(index);
+        Product product = (Product) SLOTS.getVolatile(slots, index);
+        if (product != null) {
+            return product;
+        }
+        Product decoded = decoder.decode(sourceSlots[index]);
+        // Deux lecteurs peuvent décoder en même temps : une seule instance est conservée
+        Product winner = (Product) SLOTS.compareAndExchange(slots, index, (Product) null, decoded);
+        return winner != null ? winner : decoded;
+    }
+
+    public boolean isMaterialized(int index) {
+        checkIndex(index);
+        return SLOTS.getVolatile(slots, index) != null;
+    }
+
+    public int getMaterializedCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (SLOTS.getVolatile(slots, i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Product set(int index, Product product) {
+        Product previous = get(index);
+        SLOTS.setVolatile(slots, index, product);
+        sourceSlots[index] = -1;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Product product) {
+        if (size == slots.length) {
+            int capacity = slots.length + (slots.length >> 1);
+            slots = Arrays.copyOf(slots, capacity);
+            sourceSlots = Arrays.copyOf(sourceSlots, capacity);
+        }
+        slots[size] = product;
+        sourceSlots[size] = -1;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    // Seule la suppression du dernier emplacement est utilisée par Inventory
+    @Override
+    public Product remove(int index) {
+        checkIndex(index);
+        Product removed = get(index);
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(slots, index + 1, slots, index, moved);
+            System.arraycopy(sourceSlots, index + 1, sourceSlots, index, moved);
+        }
+        size--;
+        slots[size] = null;
+        sourceSlots[size] = -1;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getSourceSize() {
+        return sourceSize;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors limites (taille " + size + ")");
+        }
+    }
+
+    // La sérialisation Java matérialise tout et écrit une ArrayList ordinaire
+    private Object writeReplace() throws ObjectStreamException {
+        return new ArrayList<>(this);
+    }
+}
@@ -0,0 +1,182 @@
+package Models;
+
+import java.io.ObjectStreamException;
+import java.time.LocalDate;
+
+// Vue jetable (flyweight) sur un enregistrement de OffHeapProductStore : les accesseurs lisent
+// directement la mémoire hors tas et les mouvements de stock y font leur CAS.
+// Le premier appel d'un setter détache la vue : elle devient une copie ordinaire, à transmettre
+// à updateProduct comme un produit construit par l'appelant.
+public class OffHeapProduct extends Product {
+    private static final long serialVersionUID = 1L;
+
+    private final transient OffHeapProductStore store;
+    private final transient int record;
+    private final transient int id;
+    private transient boolean attached;
+
+    OffHeapProduct(OffHeapProductStore store, int record) {
+        super(false);
+        this.store = store;
+        this.record = record;
+        this.id = store.id(record);
+        this.attached = true;
+    }
+
+    boolean isViewOf(OffHeapProductStore store) {
+        return attached && this.store == store;
+    }
+
+    int getRecord() {
+        return record;
+    }
+
+    // Un enregistrement libéré peut être réutilisé par un autre produit : une vue conservée
+    // après la suppression de son produit échoue au lieu de lire celui-ci
+    private int record() {
+        if (store.id(record) != id) {
+            throw new IllegalStateException("Le produit " + id + " n'est plus dans l'inventaire.");
+        }
+        return record;
+    }
+
+    private void detach() {
+        if (!attached) {
+            return;
+        }
+        super.setId(id);
+        super.setName(store.name(record()));
+        super.setDescription(store.description(record()));
+        super.setPrice(store.price(record()));
+        super.setQuantity(store.quantity(record()));
+        super.setReservedQuantity(store.reservedQuantity(record()));
+        super.setMinStockLevel(store.minStockLevel(record()));
+        super.setCategory(store.category(record()));
+        super.setSupplier(store.supplier(record()));
+        super.setSku(store.sku(record()));
+        super.setExpirationDay(store.expirationDay(record()));
+        super.setLocation(store.location(record()));
+        attached = false;
+    }
+
+    @Override
+    public Product copy() {
+        return attached ? store.read(record()) : super.copy();
+    }
+
+    // Sérialisée comme un produit ordinaire
+    private Object writeReplace() throws ObjectStreamException {
+        return copy();
+    }
+
+    // Getters et Setters
+    @Override public int getId() { return attached ? id : super.getId(); }
+    @Override public void setId(int id) { detach(); super.setId(id); }
+
+    @Override public String getName() { return attached ? store.name(record()) : super.getName(); }
+    @Override public void setName(String name) { detach(); super.setName(name); }
+
+    @Override public String getDescription() { return attached ? store.description(record()) : super.getDescription(); }
+    @Override public void setDescription(String description) { detach(); super.setDescription(description); }
+
+    @Override public double getPrice() { return attached ? store.price(record()) : super.getPrice(); }
+    @Override public void setPrice(double price) { detach(); super.setPrice(price); }
+
+    @Override public int getQuantity() { return attached ? store.quantity(record()) : super.getQuantity(); }
+    @Override public void setQuantity(int quantity) { detach(); super.setQuantity(quantity); }
+
+    @Override
+    public int getReservedQuantity() {
+        return attached ? store.reservedQuantity(record()) : super.getReservedQuantity();
+    }
+
+    @Override
+    public void setReservedQuantity(int reservedQuantity) {
+        detach();
+        super.setReservedQuantity(reservedQuantity);
+    }
+
+    @Override public int getMinStockLevel() { return attached ? store.minStockLevel(record()) : super.getMinStockLevel(); }
+    @Override public void setMinStockLevel(int minStockLevel) { detach(); super.setMinStockLevel(minStockLevel); }
+
+    @Override public Category getCategory() { return attached ? store.category(record()) : super.getCategory(); }
+    @Override public void setCategory(Category category) { detach(); super.setCategory(category); }
+
+    @Override public Supplier getSupplier() { return attached ? store.supplier(record()) : super.getSupplier(); }
+    @Override public void setSupplier(Supplier supplier) { detach(); super.setSupplier(supplier); }
+
+    @Override public String getSku() { return attached ? store.sku(record()) : super.getSku(); }
+    @Override public void setSku(String sku) { detach(); super.setSku(sku); }
+
+    @Override
+    public LocalDate getExpirationDate() {
+        int day = getExpirationDay();
+        return day != NO_DATE ? LocalDate.ofEpochDay(day) : null;
+    }
+
+    @Override
+    public void setExpirationDate(LocalDate expirationDate) {
+        detach();
+        super.setExpirationDate(expirationDate);
+    }
+
+    @Override public String getLocation() { return attached ? store.location(record()) : super.getLocation(); }
+    @Override public void setLocation(String location) { detach(); super.setLocation(location); }
+
+    @Override
+    int getExpirationDay() {
+        return attached ? store.expirationDay(record()) : super.getExpirationDay();
+    }
+
+    @Override
+    void setExpirationDay(int expirationDay) {
+        detach();
+        super.setExpirationDay(expirationDay);
+    }
+
+    @Override
+    byte[] getSkuBytes() {
+        return attached ? store.skuBytes(record()) : super.getSkuBytes();
+    }
+
+    // Mouvements de stock atomiques, sur l'enregistrement tant que la vue est attachée
+    @Override
+    int getQuantityVolatile() {
+        return attached ? store.quantity(record()) : super.getQuantityVolatile();
+    }
+
+    @Override
+    boolean compareAndSetQuantity(int expected, int updated) {
+        return attached ? store.compareAndSetQuantity(record(), expected, updated)
+                : super.compareAndSetQuantity(expected, updated);
+    }
+
+    @Override
+    void setQuantityVolatile(int quantity) {
+        if (attached) {
+            store.setQuantity(record(), quantity);
+        } else {
+            super.setQuantityVolatile(quantity);
+        }
+    }
+
+    @Override
+    int getReservedQuantityVolatile() {
+        return attached ? store.reservedQuantity(record()) : super.getReservedQuantityVolatile();
+    }
+
+    @Override
+    boolean compareAndSetReservedQuantity(int expected, int updated) {
+        return attached ? store.compareAndSetReservedQuantity(record(), expected, updated)
+                : super.compareAndSetReservedQuantity(expected, updated);
+    }
+
+    @Override
+    void setReservedQuantityVolatile(int reservedQuantity) {
+        if (attached) {
+            store.setReservedQuantity(record(), reservedQuantity);
+        } else {
+            super.setReservedQuantityVolatile(reservedQuantity);
+        }
+    }
+}
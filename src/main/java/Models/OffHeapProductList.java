@@ -0,0 +1,102 @@
+package Models;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Liste de produits dont le contenu vit dans un OffHeapProductStore : sur le tas, il ne reste
+// qu'un int par emplacement (le numéro d'enregistrement). get retourne une nouvelle vue à
+// chaque appel ; set et remove retournent une copie de l'ancien contenu, l'enregistrement
+// pouvant être réutilisé aussitôt.
+public class OffHeapProductList extends AbstractList<Product> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final transient OffHeapProductStore store = new OffHeapProductStore();
+    private transient int[] records;
+    private transient int size;
+
+    public OffHeapProductList(int initialCapacity) {
+        this.records = new int[Math.max(16, initialCapacity)];
+    }
+
+    public OffHeapProductStore getStore() {
+        return store;
+    }
+
+    @Override
+    public Product get(int index) {
+        checkIndex(index);
+        return new OffHeapProduct(store, records[index]);
+    }
+
+    // Une vue attachée à ce stockage est déplacée sans copie (suppression par échange d'Inventory)
+    @Override
+    public Product set(int index, Product product) {
+        checkIndex(index);
+        int record = records[index];
+        Product previous = store.read(record);
+        if (product instanceof OffHeapProduct && ((OffHeapProduct) product).isViewOf(store)) {
+            int source = ((OffHeapProduct) product).getRecord();
+            if (source != record) {
+                store.retain(source);
+                store.release(record);
+                records[index] = source;
+            }
+        } else if (store.references(record) > 1) {
+            store.release(record);
+            records[index] = store.allocate(product);
+        } else {
+            store.write(record, product);
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean add(Product product) {
+        if (size == records.length) {
+            records = Arrays.copyOf(records, records.length + (records.length >> 1));
+        }
+        records[size++] = store.allocate(product);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Product remove(int index) {
+        checkIndex(index);
+        int record = records[index];
+        Product removed = store.read(record);
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(records, index + 1, records, index, moved);
+        }
+        size--;
+        store.release(record);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors limites (taille " + size + ")");
+        }
+    }
+
+    // La sérialisation Java écrit une ArrayList de copies ordinaires
+    private Object writeReplace() throws ObjectStreamException {
+        List<Product> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(store.read(records[i]));
+        }
+        return copy;
+    }
+}
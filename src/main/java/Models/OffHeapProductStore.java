@@ -0,0 +1,501 @@
+package Models;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Produits stockés hors du tas Java, dans des ByteBuffer directs : un enregistrement de taille
+// fixe par produit et une arène pour les chaînes de longueur variable. Le GC ne voit que
+// quelques blocs de 1 Mo, quel que soit le nombre de produits.
+// Un enregistrement garde son numéro pendant toute la vie du produit (les vues OffHeapProduct
+// y restent attachées) ; les numéros libérés sont réutilisés.
+// Les ajouts, suppressions et déplacements nécessitent l'accès exclusif ; write, les lectures
+// et les mouvements de stock (CAS sur la quantité) suivent les règles de Inventory.
+// Une chaîne remplacée par une chaîne qui tient dans son emplacement est réécrite en place ;
+// les autres restent dans l'arène jusqu'à compactStrings (voir isCompactionDue).
+public class OffHeapProductStore {
+
+    // Disposition d'un enregistrement (octets, ordre natif, champs alignés)
+    private static final int ID = 0;
+    private static final int QUANTITY = 4;
+    private static final int RESERVED_QUANTITY = 8;
+    private static final int MIN_STOCK_LEVEL = 12;
+    private static final int PRICE = 16;
+    private static final int CATEGORY = 24;
+    private static final int SUPPLIER = 28;
+    private static final int EXPIRATION_DAY = 32;
+    private static final int REFERENCES = 36; // emplacements de la liste qui pointent sur l'enregistrement
+    private static final int NAME = 40;
+    private static final int DESCRIPTION = 48;
+    private static final int SKU = 56;
+    private static final int LOCATION = 64;
+    private static final int RECORD_SIZE = 72;
+
+    private static final int RECORD_CHUNK_BITS = 14; // 16 384 enregistrements (1,1 Mo) par bloc
+    private static final int RECORD_CHUNK_MASK = (1 << RECORD_CHUNK_BITS) - 1;
+    private static final int ARENA_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_SHARED_STRINGS = 1 << 16;
+    // Compactage quand les chaînes mortes dépassent un bloc et la moitié des chaînes écrites
+    private static final long MIN_COMPACTION_WASTE = ARENA_CHUNK_SIZE;
+
+    // Référence de chaîne : position dans le bloc (32 bits de poids faible), numéro de bloc
+    // (bits 32 à 53) et version (bits 54 à 61, impaire pendant une réécriture en place)
+    private static final long NO_STRING = -1;
+    private static final long SHARED = 1L << 62; // chaîne du dictionnaire, jamais réécrite
+    private static final int VERSION_SHIFT = 54;
+    private static final long VERSION_MASK = 0xFFL << VERSION_SHIFT;
+    private static final long MAX_ARENA_CHUNKS = 1L << (VERSION_SHIFT - 32);
+    private static final int NO_ORDINAL = -1;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private volatile ByteBuffer[] records = new ByteBuffer[0];
+    private int recordCount;
+    private int[] freeRecords = new int[16];
+    private int freeCount;
+
+    private volatile ByteBuffer[] arena = new ByteBuffer[0];
+    private int arenaOffset;
+    // Octets occupés dans l'arène (alignement compris), dont ceux des chaînes mortes
+    private long stringBytes;
+    private long wastedStringBytes;
+
+    // Descriptions et emplacements répétés : une seule copie dans l'arène (voir StringPool)
+    private final ConcurrentHashMap<String, Long> sharedStrings = new ConcurrentHashMap<>();
+
+    // Catégories et fournisseurs référencés par ordinal (peu nombreux, gardés sur le tas)
+    private final Map<Category, Integer> categoryOrdinals = new IdentityHashMap<>();
+    private final List<Category> categories = new CopyOnWriteArrayList<>();
+    private final Map<Supplier, Integer> supplierOrdinals = new IdentityHashMap<>();
+    private final List<Supplier> suppliers = new CopyOnWriteArrayList<>();
+
+    // ========== Cycle de vie des enregistrements ==========
+
+    int allocate(Product product) {
+        int record;
+        if (freeCount > 0) {
+            record = freeRecords[--freeCount];
+        } else {
+            record = recordCount++;
+            if ((record >>> RECORD_CHUNK_BITS) == records.length) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(RECORD_SIZE << RECORD_CHUNK_BITS)
+                        .order(ByteOrder.nativeOrder());
+                ByteBuffer[] grown = Arrays.copyOf(records, records.length + 1);
+                grown[grown.length - 1] = chunk;
+                records = grown;
+            }
+        }
+        ByteBuffer chunk = chunk(record);
+        int base = base(record);
+        chunk.putInt(base + REFERENCES, 1);
+        LONG.setVolatile(chunk, base + NAME, NO_STRING);
+        LONG.setVolatile(chunk, base + DESCRIPTION, NO_STRING);
+        LONG.setVolatile(chunk, base + SKU, NO_STRING);
+        LONG.setVolatile(chunk, base + LOCATION, NO_STRING);
+        write(record, product);
+        return record;
+    }
+
+    // Remplace le contenu d'un enregistrement. Le nom et le SKU sont réécrits en place quand
+    // ils tiennent dans l'emplacement de l'ancienne valeur ; les autres chaînes remplacées
+    // restent dans l'arène jusqu'au prochain compactage
+    void write(int record, Product product) {
+        ByteBuffer chunk = chunk(record);
+        int base = base(record);
+        String nameValue = product.getName();
+        setString(chunk, base + NAME, nameValue != null ? nameValue.getBytes(StandardCharsets.UTF_8) : null);
+        setString(chunk, base + SKU, product.getSkuBytes());
+        replaceString(chunk, base + DESCRIPTION, putString(product.getDescription(), true));
+        replaceString(chunk, base + LOCATION, putString(product.getLocation(), true));
+
+        chunk.putInt(base + ID, product.getId());
+        chunk.putInt(base + MIN_STOCK_LEVEL, product.getMinStockLevel());
+        chunk.putDouble(base + PRICE, product.getPrice());
+        chunk.putInt(base + CATEGORY, product.getCategory() != null
+                ? ordinal(product.getCategory(), categoryOrdinals, categories) : NO_ORDINAL);
+        chunk.putInt(base + SUPPLIER, product.getSupplier() != null
+                ? ordinal(product.getSupplier(), supplierOrdinals, suppliers) : NO_ORDINAL);
+        chunk.putInt(base + EXPIRATION_DAY, product.getExpirationDay());
+        INT.setVolatile(chunk, base + RESERVED_QUANTITY, product.getReservedQuantity());
+        INT.setVolatile(chunk, base + QUANTITY, product.getQuantity());
+    }
+
+    // Un second emplacement de la liste pointe sur l'enregistrement (suppression par échange)
+    void retain(int record) {
+        ByteBuffer chunk = chunk(record);
+        int base = base(record);
+        chunk.putInt(base + REFERENCES, chunk.getInt(base + REFERENCES) + 1);
+    }
+
+    void release(int record) {
+        ByteBuffer chunk = chunk(record);
+        int base = base(record);
+        int references = chunk.getInt(base + REFERENCES) - 1;
+        chunk.putInt(base + REFERENCES, references);
+        if (references > 0) {
+            return;
+        }
+        chunk.putInt(base + ID, 0); // invalide les vues restantes (voir OffHeapProduct)
+        clearString(chunk, base + NAME);
+        clearString(chunk, base + DESCRIPTION);
+        clearString(chunk, base + SKU);
+        clearString(chunk, base + LOCATION);
+        if (freeCount == freeRecords.length) {
+            freeRecords = Arrays.copyOf(freeRecords, freeCount * 2);
+        }
+        freeRecords[freeCount++] = record;
+    }
+
+    int references(int record) {
+        return chunk(record).getInt(base(record) + REFERENCES);
+    }
+
+    // Copie ordinaire sur le tas
+    Product read(int record) {
+        Product product = new Product(false);
+        product.setId(id(record));
+        product.setName(name(record));
+        product.setDescription(description(record));
+        product.setPrice(price(record));
+        product.setQuantity(quantity(record));
+        product.setReservedQuantity(reservedQuantity(record));
+        product.setMinStockLevel(minStockLevel(record));
+        product.setCategory(category(record));
+        product.setSupplier(supplier(record));
+        product.setSku(sku(record));
+        product.setExpirationDay(expirationDay(record));
+        product.setLocation(location(record));
+        return product;
+    }
+
+    // ========== Champs d'un enregistrement ==========
+
+    int id(int record) {
+        return chunk(record).getInt(base(record) + ID);
+    }
+
+    String name(int record) {
+        return string(record, NAME);
+    }
+
+    String description(int record) {
+        return string(record, DESCRIPTION);
+    }
+
+    double price(int record) {
+        return chunk(record).getDouble(base(record) + PRICE);
+    }
+
+    int quantity(int record) {
+        return (int) INT.getVolatile(chunk(record), base(record) + QUANTITY);
+    }
+
+    boolean compareAndSetQuantity(int record, int expected, int updated) {
+        return INT.compareAndSet(chunk(record), base(record) + QUANTITY, expected, updated);
+    }
+
+    void setQuantity(int record, int quantity) {
+        INT.setVolatile(chunk(record), base(record) + QUANTITY, quantity);
+    }
+
+    int reservedQuantity(int record) {
+        return (int) INT.getVolatile(chunk(record), base(record) + RESERVED_QUANTITY);
+    }
+
+    boolean compareAndSetReservedQuantity(int record, int expected, int updated) {
+        return INT.compareAndSet(chunk(record), base(record) + RESERVED_QUANTITY, expected, updated);
+    }
+
+    void setReservedQuantity(int record, int reservedQuantity) {
+        INT.setVolatile(chunk(record), base(record) + RESERVED_QUANTITY, reservedQuantity);
+    }
+
+    int minStockLevel(int record) {
+        return chunk(record).getInt(base(record) + MIN_STOCK_LEVEL);
+    }
+
+    Category category(int record) {
+        int ordinal = chunk(record).getInt(base(record) + CATEGORY);
+        return ordinal != NO_ORDINAL ? categories.get(ordinal) : null;
+    }
+
+    Supplier supplier(int record) {
+        int ordinal = chunk(record).getInt(base(record) + SUPPLIER);
+        return ordinal != NO_ORDINAL ? suppliers.get(ordinal) : null;
+    }
+
+    String sku(int record) {
+        return string(record, SKU);
+    }
+
+    byte[] skuBytes(int record) {
+        return bytes(record, SKU);
+    }
+
+    int expirationDay(int record) {
+        return chunk(record).getInt(base(record) + EXPIRATION_DAY);
+    }
+
+    String location(int record) {
+        return string(record, LOCATION);
+    }
+
+    private ByteBuffer chunk(int record) {
+        return records[record >>> RECORD_CHUNK_BITS];
+    }
+
+    private static int base(int record) {
+        return (record & RECORD_CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    // ========== Arène des chaînes ==========
+
+    private long putString(String value, boolean shared) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        if (!shared) {
+            return append(value.getBytes(StandardCharsets.UTF_8));
+        }
+        Long reference = sharedStrings.get(value);
+        if (reference != null) {
+            return reference;
+        }
+        synchronized (this) {
+            reference = sharedStrings.get(value);
+            if (reference != null) {
+                return reference;
+            }
+            long appended = append(value.getBytes(StandardCharsets.UTF_8));
+            if (sharedStrings.size() >= MAX_SHARED_STRINGS) {
+                return appended;
+            }
+            sharedStrings.put(value, appended | SHARED);
+            return appended | SHARED;
+        }
+    }
+
+    // Longueur (int) puis octets UTF-8, alignés sur 4 octets
+    private synchronized long append(byte[] bytes) {
+        int size = Integer.BYTES + bytes.length;
+        ByteBuffer[] chunks = arena;
+        if (chunks.length == 0 || arenaOffset + size > chunks[chunks.length - 1].capacity()) {
+            if (chunks.length == MAX_ARENA_CHUNKS) {
+                throw new IllegalStateException("Arène des chaînes pleine : " + chunks.length + " blocs.");
+            }
+            ByteBuffer chunk = ByteBuffer.allocateDirect(Math.max(ARENA_CHUNK_SIZE, size))
+                    .order(ByteOrder.nativeOrder());
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = chunk;
+            arena = chunks;
+            arenaOffset = 0;
+        }
+        ByteBuffer chunk = chunks[chunks.length - 1];
+        chunk.putInt(arenaOffset, bytes.length);
+        chunk.put(arenaOffset + Integer.BYTES, bytes);
+        long reference = ((long) (chunks.length - 1) << 32) | arenaOffset;
+        arenaOffset += aligned(size);
+        stringBytes += aligned(size);
+        return reference;
+    }
+
+    private static int aligned(int size) {
+        return (size + 3) & ~3;
+    }
+
+    // Chaîne propre à l'enregistrement (nom, SKU) : réécrite en place si elle tient dans
+    // l'emplacement de l'ancienne. La version impaire de la référence signale la réécriture
+    // aux lectures concurrentes (voir bytes)
+    private void setString(ByteBuffer chunk, int index, byte[] bytes) {
+        long previous = chunk.getLong(index);
+        if (bytes == null || previous == NO_STRING || (previous & SHARED) != 0) {
+            replaceString(chunk, index, bytes != null ? append(bytes) : NO_STRING);
+            return;
+        }
+        int previousSize = aligned(Integer.BYTES + length(previous));
+        int size = aligned(Integer.BYTES + bytes.length);
+        if (size > previousSize) {
+            replaceString(chunk, index, append(bytes));
+            return;
+        }
+        long writing = nextVersion(previous);
+        LONG.setVolatile(chunk, index, writing);
+        VarHandle.storeStoreFence();
+        ByteBuffer strings = arena[chunkIndex(previous)];
+        strings.putInt(offset(previous), bytes.length);
+        strings.put(offset(previous) + Integer.BYTES, bytes);
+        LONG.setVolatile(chunk, index, nextVersion(writing));
+        if (size < previousSize) {
+            waste(previousSize - size);
+        }
+    }
+
+    private void replaceString(ByteBuffer chunk, int index, long reference) {
+        discard(chunk.getLong(index));
+        LONG.setVolatile(chunk, index, reference);
+    }
+
+    private void clearString(ByteBuffer chunk, int index) {
+        replaceString(chunk, index, NO_STRING);
+    }
+
+    private void discard(long reference) {
+        if (reference != NO_STRING && (reference & SHARED) == 0) {
+            waste(aligned(Integer.BYTES + length(reference)));
+        }
+    }
+
+    private synchronized void waste(int size) {
+        wastedStringBytes += size;
+    }
+
+    private static long nextVersion(long reference) {
+        return (reference & ~VERSION_MASK) | ((reference + (1L << VERSION_SHIFT)) & VERSION_MASK);
+    }
+
+    private static int chunkIndex(long reference) {
+        return (int) ((reference & ~(SHARED | VERSION_MASK)) >>> 32);
+    }
+
+    private static int offset(long reference) {
+        return (int) reference;
+    }
+
+    private String string(int record, int field) {
+        byte[] bytes = bytes(record, field);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    // Lecture sans verrou : recommencée si la référence a changé pendant la copie (réécriture
+    // en place, remplacement, compactage qui libère l'ancien bloc)
+    private byte[] bytes(int record, int field) {
+        ByteBuffer chunk = chunk(record);
+        int index = base(record) + field;
+        while (true) {
+            long reference = (long) LONG.getVolatile(chunk, index);
+            if (reference == NO_STRING) {
+                return null;
+            }
+            ByteBuffer strings = (reference & (1L << VERSION_SHIFT)) == 0 ? arena[chunkIndex(reference)] : null;
+            if (strings != null) {
+                int offset = offset(reference);
+                int length = strings.getInt(offset);
+                if (length >= 0 && length <= strings.capacity() - offset - Integer.BYTES) {
+                    byte[] bytes = new byte[length];
+                    strings.get(offset + Integer.BYTES, bytes);
+                    VarHandle.loadLoadFence();
+                    if ((long) LONG.getVolatile(chunk, index) == reference) {
+                        return bytes;
+                    }
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int length(long reference) {
+        return arena[chunkIndex(reference)].getInt(offset(reference));
+    }
+
+    // ========== Compactage de l'arène ==========
+
+    // Vrai quand les chaînes mortes occupent plus d'un bloc et plus de la moitié de l'arène
+    public synchronized boolean isCompactionDue() {
+        return wastedStringBytes > MIN_COMPACTION_WASTE && wastedStringBytes * 2 > stringBytes;
+    }
+
+    // Recopie les chaînes vivantes dans de nouveaux blocs et libère les anciens ; nécessite
+    // l'accès exclusif. Les numéros de bloc ne sont pas réutilisés : une vue qui lit une
+    // ancienne référence trouve un bloc libéré ou une référence changée, et relit.
+    public synchronized void compactStrings() {
+        ByteBuffer[] previous = arena;
+        if (previous.length > 0) {
+            arenaOffset = previous[previous.length - 1].capacity(); // force un nouveau bloc
+        }
+        stringBytes = 0;
+        wastedStringBytes = 0;
+        Map<Long, Long> movedShared = new HashMap<>();
+        for (int record = 0; record < recordCount; record++) {
+            if (references(record) <= 0) {
+                continue; // libéré, chaînes déjà effacées
+            }
+            ByteBuffer chunk = chunk(record);
+            int base = base(record);
+            for (int field : new int[]{NAME, DESCRIPTION, SKU, LOCATION}) {
+                long reference = chunk.getLong(base + field);
+                if (reference == NO_STRING) {
+                    continue;
+                }
+                long moved;
+                if ((reference & SHARED) != 0) {
+                    moved = movedShared.computeIfAbsent(reference, r -> move(r) | SHARED);
+                } else {
+                    moved = move(reference);
+                }
+                LONG.setVolatile(chunk, base + field, moved | (reference & VERSION_MASK));
+            }
+        }
+        // Le dictionnaire ne garde que les chaînes encore utilisées
+        sharedStrings.entrySet().removeIf(entry -> !movedShared.containsKey(entry.getValue()));
+        sharedStrings.replaceAll((value, reference) -> movedShared.get(reference));
+        ByteBuffer[] chunks = Arrays.copyOf(arena, arena.length);
+        Arrays.fill(chunks, 0, previous.length, null);
+        arena = chunks;
+    }
+
+    private long move(long reference) {
+        ByteBuffer strings = arena[chunkIndex(reference)];
+        byte[] bytes = new byte[strings.getInt(offset(reference))];
+        strings.get(offset(reference) + Integer.BYTES, bytes);
+        return append(bytes);
+    }
+
+    private synchronized <T> int ordinal(T value, Map<T, Integer> ordinals, List<T> values) {
+        Integer ordinal = ordinals.get(value);
+        if (ordinal == null) {
+            ordinal = values.size();
+            ordinals.put(value, ordinal);
+            values.add(value);
+        }
+        return ordinal;
+    }
+
+    // ========== Statistiques ==========
+
+    public int getRecordCount() {
+        return recordCount - freeCount;
+    }
+
+    // Mémoire directe réservée (enregistrements et arène)
+    public synchronized long getOffHeapBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : records) {
+            bytes += chunk.capacity();
+        }
+        for (ByteBuffer chunk : arena) {
+            if (chunk != null) { // libéré par compactStrings
+                bytes += chunk.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    public synchronized long getStringBytes() {
+        return stringBytes;
+    }
+
+    // Chaînes remplacées ou supprimées, récupérées par compactStrings
+    public synchronized long getWastedStringBytes() {
+        return wastedStringBytes;
+    }
+}
@@ -1,11 +1,41 @@
 package Models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 
+// Représentation compacte en mémoire (les accesseurs gardent leurs types) :
+// - descriptions et emplacements partagés entre les produits d'un même inventaire
+//   (StringPool de Inventory, voir shareStrings) ;
+// - date d'expiration en nombre de jours depuis 1970 ;
+// - SKU en octets UTF-8, sans objet String.
 public class Product implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Forme sérialisée inchangée (fichiers .dat existants)
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", int.class),
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("description", String.class),
+            new ObjectStreamField("price", double.class),
+            new ObjectStreamField("quantity", int.class),
+            new ObjectStreamField("minStockLevel", int.class),
+            new ObjectStreamField("category", Category.class),
+            new ObjectStreamField("supplier", Supplier.class),
+            new ObjectStreamField("sku", String.class),
+            new ObjectStreamField("expirationDate", LocalDate.class),
+            new ObjectStreamField("location", String.class),
+            new ObjectStreamField("reservedQuantity", int.class)
+    };
+
     private int id;
     private String name;
     private String description;
@@ -14,26 +44,68 @@ public class Product implements Serializable {
     private int minStockLevel;
     private Category category;
     private Supplier supplier;
-    private String sku; // Stock Keeping Unit
-    private LocalDate expirationDate;
+    private byte[] sku; // Stock Keeping Unit
+    private int expirationDay = NO_DATE;
     private String location;
+    private int reservedQuantity; // unités retirées du stock disponible pour des commandes
+
+    // Accès atomiques utilisés par Inventory pour les mouvements de stock
+    private static final VarHandle QUANTITY;
+    private static final VarHandle RESERVED_QUANTITY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            QUANTITY = lookup.findVarHandle(Product.class, "quantity", int.class);
+            RESERVED_QUANTITY = lookup.findVarHandle(Product.class, "reservedQuantity", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public Product() {
-        this.expirationDate = LocalDate.now().plusYears(1);
+        this(true);
+    }
+
+    // Sans date par défaut pour les vues sur un stockage externe (voir OffHeapProduct)
+    Product(boolean withDefaultExpiration) {
+        if (withDefaultExpiration) {
+            setExpirationDate(LocalDate.now().plusYears(1));
+        }
     }
 
     public Product(int id, String name, String description, double price, int quantity,
                    int minStockLevel, Category category, Supplier supplier, String sku) {
         this.id = id;
         this.name = name;
-        this.description = description;
+        setDescription(description);
         this.price = price;
         this.quantity = quantity;
         this.minStockLevel = minStockLevel;
         this.category = category;
         this.supplier = supplier;
-        this.sku = sku;
-        this.expirationDate = LocalDate.now().plusYears(1);
+        setSku(sku);
+        setExpirationDate(LocalDate.now().plusYears(1));
+    }
+
+    // Copie de tous les champs (catégorie, fournisseur et chaînes partagés)
+    public Product copy() {
+        return new Product(this);
+    }
+
+    private Product(Product source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.description = source.description;
+        this.price = source.price;
+        this.quantity = source.quantity;
+        this.minStockLevel = source.minStockLevel;
+        this.category = source.category;
+        this.supplier = source.supplier;
+        this.sku = source.sku; // jamais modifié sur place
+        this.expirationDay = source.expirationDay;
+        this.location = source.location;
+        this.reservedQuantity = source.reservedQuantity;
     }
 
     // Getters et Setters
@@ -52,6 +124,9 @@ public class Product implements Serializable {
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
 
+    public int getReservedQuantity() { return reservedQuantity; }
+    public void setReservedQuantity(int reservedQuantity) { this.reservedQuantity = reservedQuantity; }
+
     public int getMinStockLevel() { return minStockLevel; }
     public void setMinStockLevel(int minStockLevel) { this.minStockLevel = minStockLevel; }
 
@@ -61,26 +136,119 @@ public class Product implements Serializable {
     public Supplier getSupplier() { return supplier; }
     public void setSupplier(Supplier supplier) { this.supplier = supplier; }
 
-    public String getSku() { return sku; }
-    public void setSku(String sku) { this.sku = sku; }
+    public String getSku() { return sku != null ? new String(sku, StandardCharsets.UTF_8) : null; }
+    public void setSku(String sku) { this.sku = encodeSku(sku); }
+
+    public LocalDate getExpirationDate() {
+        return expirationDay != NO_DATE ? LocalDate.ofEpochDay(expirationDay) : null;
+    }
 
-    public LocalDate getExpirationDate() { return expirationDate; }
-    public void setExpirationDate(LocalDate expirationDate) { this.expirationDate = expirationDate; }
+    public void setExpirationDate(LocalDate expirationDate) {
+        this.expirationDay = expirationDate != null ? Math.toIntExact(expirationDate.toEpochDay()) : NO_DATE;
+    }
 
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
 
+    // Date en jours depuis 1970, NO_DATE si absente (voir OffHeapProductStore)
+    int getExpirationDay() {
+        return expirationDay;
+    }
+
+    void setExpirationDay(int expirationDay) {
+        this.expirationDay = expirationDay;
+    }
+
+    // Remplace description et emplacement par les instances partagées de l'inventaire qui
+    // stocke le produit ; releaseStrings les rend quand il en sort ou est remplacé
+    void shareStrings(StringPool descriptions, StringPool locations) {
+        description = descriptions.acquire(description);
+        location = locations.acquire(location);
+    }
+
+    void releaseStrings(StringPool descriptions, StringPool locations) {
+        descriptions.release(description);
+        locations.release(location);
+    }
+
+    // Forme compacte du SKU, pour les index qui comparent sans créer de String (voir SkuIndex)
+    byte[] getSkuBytes() {
+        return sku;
+    }
+
+    static byte[] encodeSku(String sku) {
+        return sku != null ? sku.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("name", name);
+        fields.put("description", description);
+        fields.put("price", price);
+        fields.put("quantity", quantity);
+        fields.put("minStockLevel", minStockLevel);
+        fields.put("category", category);
+        fields.put("supplier", supplier);
+        fields.put("sku", getSku());
+        fields.put("expirationDate", getExpirationDate());
+        fields.put("location", location);
+        fields.put("reservedQuantity", reservedQuantity);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = fields.get("id", 0);
+        name = (String) fields.get("name", null);
+        setDescription((String) fields.get("description", null));
+        price = fields.get("price", 0.0);
+        quantity = fields.get("quantity", 0);
+        minStockLevel = fields.get("minStockLevel", 0);
+        category = (Category) fields.get("category", null);
+        supplier = (Supplier) fields.get("supplier", null);
+        setSku((String) fields.get("sku", null));
+        setExpirationDate((LocalDate) fields.get("expirationDate", null));
+        setLocation((String) fields.get("location", null));
+        reservedQuantity = fields.get("reservedQuantity", 0);
+    }
+
+    // Mouvements de stock atomiques (réservés à Inventory)
+    int getQuantityVolatile() {
+        return (int) QUANTITY.getVolatile(this);
+    }
+
+    boolean compareAndSetQuantity(int expected, int updated) {
+        return QUANTITY.compareAndSet(this, expected, updated);
+    }
+
+    int getReservedQuantityVolatile() {
+        return (int) RESERVED_QUANTITY.getVolatile(this);
+    }
+
+    boolean compareAndSetReservedQuantity(int expected, int updated) {
+        return RESERVED_QUANTITY.compareAndSet(this, expected, updated);
+    }
+
+    void setQuantityVolatile(int quantity) {
+        QUANTITY.setVolatile(this, quantity);
+    }
+
+    void setReservedQuantityVolatile(int reservedQuantity) {
+        RESERVED_QUANTITY.setVolatile(this, reservedQuantity);
+    }
+
     // Méthodes utilitaires
     public boolean isLowStock() {
-        return quantity <= minStockLevel;
+        return getQuantity() <= getMinStockLevel();
     }
 
     public double getTotalValue() {
-        return price * quantity;
+        return getPrice() * getQuantity();
     }
 
     @Override
     public String toString() {
-        return name + " (SKU: " + sku + ", Stock: " + quantity + ")";
+        return getName() + " (SKU: " + getSku() + ", Stock: " + getQuantity() + ")";
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package Models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Copie en colonnes (struct-of-arrays) des champs numériques des produits.
+// Les lignes sont alignées sur les emplacements de Inventory : la ligne i décrit le produit
+// de l'emplacement i. Sert aux valeurs par catégorie et par fournisseur, calculées en
+// boucles serrées sans déréférencer de Product. Total et stock faible n'y passent pas :
+// Inventory les tient à jour à chaque mutation.
+public class ProductColumns {
+    private static final int NO_ORDINAL = -1;
+
+    private int size;
+    private int[] quantities;
+    private long[] pricesInCents;
+    private int[] categoryOrdinals;
+    private int[] supplierOrdinals;
+
+    // Ordinaux denses attribués aux IDs de catégorie et de fournisseur
+    private final Map<Integer, Integer> categoryOrdinalById = new HashMap<>();
+    private final List<Integer> categoryIdByOrdinal = new ArrayList<>();
+    private final Map<Integer, Integer> supplierOrdinalById = new HashMap<>();
+    private final List<Integer> supplierIdByOrdinal = new ArrayList<>();
+
+    public ProductColumns(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        quantities = new int[capacity];
+        pricesInCents = new long[capacity];
+        categoryOrdinals = new int[capacity];
+        supplierOrdinals = new int[capacity];
+    }
+
+    // Mise à jour des lignes (appelée par Inventory)
+    void append(Product product) {
+        ensureCapacity(size + 1);
+        set(size++, product);
+    }
+
+    void set(int slot, Product product) {
+        quantities[slot] = product.getQuantity();
+        pricesInCents[slot] = Math.round(product.getPrice() * 100);
+        categoryOrdinals[slot] = product.getCategory() != null
+                ? ordinal(product.getCategory().getId(), categoryOrdinalById, categoryIdByOrdinal) : NO_ORDINAL;
+        supplierOrdinals[slot] = product.getSupplier() != null
+                ? ordinal(product.getSupplier().getId(), supplierOrdinalById, supplierIdByOrdinal) : NO_ORDINAL;
+    }
+
+    void setQuantity(int slot, int quantity) {
+        quantities[slot] = quantity;
+    }
+
+    // Même stratégie que Inventory : la dernière ligne remplace la ligne supprimée
+    void removeSwap(int slot) {
+        int last = --size;
+        if (slot != last) {
+            quantities[slot] = quantities[last];
+            pricesInCents[slot] = pricesInCents[last];
+            categoryOrdinals[slot] = categoryOrdinals[last];
+            supplierOrdinals[slot] = supplierOrdinals[last];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= quantities.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, quantities.length + (quantities.length >> 1));
+        quantities = Arrays.copyOf(quantities, newCapacity);
+        pricesInCents = Arrays.copyOf(pricesInCents, newCapacity);
+        categoryOrdinals = Arrays.copyOf(categoryOrdinals, newCapacity);
+        supplierOrdinals = Arrays.copyOf(supplierOrdinals, newCapacity);
+    }
+
+    // Synchronisé : des remplacements concurrents peuvent découvrir une nouvelle catégorie
+    private synchronized int ordinal(int id, Map<Integer, Integer> ordinalById, List<Integer> idByOrdinal) {
+        Integer ordinal = ordinalById.get(id);
+        if (ordinal == null) {
+            ordinal = idByOrdinal.size();
+            ordinalById.put(id, ordinal);
+            idByOrdinal.add(id);
+        }
+        return ordinal;
+    }
+
+    // Agrégations
+    public int size() {
+        return size;
+    }
+
+    // Valeur du stock par ID de catégorie (les produits sans catégorie sont ignorés) ;
+    // une catégorie n'apparaît que si au moins un produit s'y trouve
+    public Map<Integer, Double> valueByCategory() {
+        return valueByOrdinal(categoryOrdinals, categoryIdByOrdinal);
+    }
+
+    public Map<Integer, Double> valueBySupplier() {
+        return valueByOrdinal(supplierOrdinals, supplierIdByOrdinal);
+    }
+
+    private Map<Integer, Double> valueByOrdinal(int[] ordinals, List<Integer> idByOrdinal) {
+        long[] cents = new long[idByOrdinal.size()];
+        int[] rows = new int[cents.length];
+        for (int i = 0; i < size; i++) {
+            int ordinal = ordinals[i];
+            // un ordinal attribué pendant le parcours est ignoré jusqu'au prochain appel
+            if (ordinal != NO_ORDINAL && ordinal < cents.length) {
+                cents[ordinal] += pricesInCents[i] * quantities[i];
+                rows[ordinal]++;
+            }
+        }
+        Map<Integer, Double> result = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < cents.length; ordinal++) {
+            if (rows[ordinal] > 0) {
+                result.put(idByOrdinal.get(ordinal), cents[ordinal] / 100.0);
+            }
+        }
+        return result;
+    }
+}
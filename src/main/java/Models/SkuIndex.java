@@ -0,0 +1,117 @@
+package Models;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Index SKU -> ID sans copie des SKU : la table ne garde que l'ID et le hachage du SKU,
+// la comparaison des clés relit le SKU du produit lui-même (Product.getSkuBytes).
+// Remplace un HashMap<String, Integer> qui dupliquait chaque SKU et allouait une entrée par produit.
+public class SkuIndex {
+    public static final int NO_ID = Integer.MIN_VALUE;
+
+    private final IntFunction<Product> products;
+    private int[] ids;
+    private int[] hashes;
+    private int size;
+
+    public SkuIndex(IntFunction<Product> products, int expectedSize) {
+        this.products = products;
+        allocate(IntIntMap.capacityFor(expectedSize));
+    }
+
+    public int get(String sku) {
+        return get(Product.encodeSku(sku));
+    }
+
+    // Clé déjà encodée (Product.getSkuBytes) : aucune allocation
+    public int get(byte[] key) {
+        int hash = hash(key);
+        int[] tableIds = ids;
+        int[] tableHashes = hashes;
+        int mask = tableIds.length - 1;
+        for (int i = hash & mask, probes = 0; probes < tableIds.length; i = (i + 1) & mask, probes++) {
+            int id = tableIds[i];
+            if (id == NO_ID) {
+                return NO_ID;
+            }
+            if (tableHashes[i] == hash) {
+                Product product = products.apply(id);
+                if (product != null && Arrays.equals(product.getSkuBytes(), key)) {
+                    return id;
+                }
+            }
+        }
+        return NO_ID;
+    }
+
+    // L'appelant garantit que le SKU n'est pas déjà indexé (voir Inventory.checkSkuAvailable)
+    public void put(byte[] sku, int id) {
+        if (id == NO_ID) {
+            throw new IllegalArgumentException("ID réservé : " + id);
+        }
+        if ((size + 1) * 2 > ids.length) {
+            resize(ids.length * 2);
+        }
+        insert(hash(sku), id);
+        size++;
+    }
+
+    public void remove(byte[] sku, int id) {
+        int mask = ids.length - 1;
+        int i = hash(sku) & mask;
+        while (ids[i] != id) {
+            if (ids[i] == NO_ID) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        // Recule les entrées suivantes de la même grappe qui ne sont plus atteignables
+        for (int j = (i + 1) & mask; ids[j] != NO_ID; j = (j + 1) & mask) {
+            int home = hashes[j] & mask;
+            boolean reachable = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!reachable) {
+                ids[i] = ids[j];
+                hashes[i] = hashes[j];
+                i = j;
+            }
+        }
+        ids[i] = NO_ID;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void insert(int hash, int id) {
+        int mask = ids.length - 1;
+        int i = hash & mask;
+        while (ids[i] != NO_ID) {
+            i = (i + 1) & mask;
+        }
+        hashes[i] = hash;
+        ids[i] = id;
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        for (int j = 0; j < oldIds.length; j++) {
+            if (oldIds[j] != NO_ID) {
+                insert(oldHashes[j], oldIds[j]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        int[] newIds = new int[capacity];
+        Arrays.fill(newIds, NO_ID);
+        hashes = new int[capacity];
+        ids = newIds;
+    }
+
+    private static int hash(byte[] sku) {
+        return IntIntMap.hash(Arrays.hashCode(sku));
+    }
+}
@@ -0,0 +1,85 @@
+package Models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ensemble d'emplacements (un bit par emplacement de Inventory), modifiable en parallèle
+// par CAS : set et clear indiquent si le bit a réellement changé.
+// Contrairement à une map ID -> Product, il ne garde aucun objet sur le tas.
+// Le redimensionnement et move nécessitent l'accès exclusif.
+public class SlotBitSet {
+    private AtomicLongArray words;
+
+    public SlotBitSet(int capacity) {
+        words = new AtomicLongArray(wordCount(Math.max(64, capacity)));
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (wordCount(capacity) <= words.length()) {
+            return;
+        }
+        AtomicLongArray grown = new AtomicLongArray(Math.max(wordCount(capacity), words.length() * 2));
+        for (int i = 0; i < words.length(); i++) {
+            grown.set(i, words.get(i));
+        }
+        words = grown;
+    }
+
+    public boolean get(int slot) {
+        return (words.get(slot >>> 6) & (1L << slot)) != 0;
+    }
+
+    public boolean set(int slot) {
+        long bit = 1L << slot;
+        int index = slot >>> 6;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, word, word | bit));
+        return true;
+    }
+
+    public boolean clear(int slot) {
+        long bit = 1L << slot;
+        int index = slot >>> 6;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & bit) == 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, word, word & ~bit));
+        return true;
+    }
+
+    // Le bit de from passe à to (suppression par échange) ; from est vidé
+    public void move(int from, int to) {
+        if (clear(from)) {
+            set(to);
+        } else {
+            clear(to);
+        }
+    }
+
+    // Premier emplacement marqué à partir de from, -1 s'il n'y en a pas
+    public int nextSetBit(int from) {
+        int index = from >>> 6;
+        if (index >= words.length()) {
+            return -1;
+        }
+        long word = words.get(index) & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length()) {
+                return -1;
+            }
+            word = words.get(index);
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static int wordCount(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+}
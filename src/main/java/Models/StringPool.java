@@ -0,0 +1,121 @@
+package Models;
+
+// Dictionnaire de chaînes fréquemment répétées (emplacements, descriptions) : les produits
+// partagent une instance par valeur distincte au lieu de garder chacun sa copie.
+// Propre à un inventaire et compté par référence : une valeur disparaît du dictionnaire avec
+// le dernier produit qui la porte, la taille suit donc le catalogue courant.
+// Tables à adressage ouvert (chaîne et compteur), sans objet par entrée : une valeur jamais
+// partagée ne coûte que quelques octets. Réparties en segments pour les remplacements concurrents.
+public class StringPool {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public StringPool() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    // Instance partagée pour value, comptée jusqu'au release correspondant
+    public String acquire(String value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = spread(value.hashCode());
+        return segments[hash & (SEGMENTS - 1)].acquire(value, hash >>> 4);
+    }
+
+    public void release(String value) {
+        if (value != null) {
+            int hash = spread(value.hashCode());
+            segments[hash & (SEGMENTS - 1)].release(value, hash >>> 4);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Segment {
+        private String[] values = new String[8];
+        private int[] references = new int[8];
+        private int size;
+
+        synchronized String acquire(String value, int hash) {
+            int mask = values.length - 1;
+            int i = hash & mask;
+            for (String shared; (shared = values[i]) != null; i = (i + 1) & mask) {
+                if (shared.equals(value)) {
+                    references[i]++;
+                    return shared;
+                }
+            }
+            values[i] = value;
+            references[i] = 1;
+            if (++size * 2 > values.length) {
+                resize(values.length * 2);
+            }
+            return value;
+        }
+
+        synchronized void release(String value, int hash) {
+            int mask = values.length - 1;
+            int i = hash & mask;
+            while (!value.equals(values[i])) {
+                if (values[i] == null) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            if (--references[i] > 0) {
+                return;
+            }
+            // Recule les entrées suivantes de la même grappe qui ne sont plus atteignables
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = (spread(values[j].hashCode()) >>> 4) & mask;
+                boolean reachable = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+                if (!reachable) {
+                    values[i] = values[j];
+                    references[i] = references[j];
+                    i = j;
+                }
+            }
+            values[i] = null;
+            size--;
+            if (values.length > 8 && size * 8 < values.length) {
+                resize(values.length / 2);
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void resize(int capacity) {
+            String[] oldValues = values;
+            int[] oldReferences = references;
+            values = new String[capacity];
+            references = new int[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = (spread(oldValues[j].hashCode()) >>> 4) & mask;
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    values[i] = oldValues[j];
+                    references[i] = oldReferences[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package Services;
+
+import Models.Category;
+import Models.Product;
+import Models.Supplier;
+import Utils.ValidationUtils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Import en masse du CSV produit par FileService.exportToCSV (séparateur ';').
+//
+// 1. Le fichier est mappé en mémoire et un parcours séquentiel repère le début de chaque
+//    enregistrement (en tenant compte des sauts de ligne entre guillemets).
+// 2. Les enregistrements sont découpés en tranches analysées et validées en parallèle
+//    sur un ForkJoinPool ; catégories et fournisseurs sont résolus par nom via une HashMap.
+// 3. Les produits valides reçoivent des IDs réservés d'un bloc et sont ajoutés par lots.
+// Les erreurs sont relevées ligne par ligne sans interrompre l'import.
+public class CsvImportService {
+
+    private static final byte SEPARATOR = ';';
+    private static final int RECORDS_PER_CHUNK = 8192;
+    private static final int BATCH_SIZE = 10_000;
+    // Colonnes de CsvReportSink ; la dernière (Valeur Totale) est recalculée à partir du prix
+    // et de la quantité : elle peut manquer et n'est jamais lue
+    private static final int EXPECTED_FIELDS = 10;
+    private static final int REQUIRED_FIELDS = EXPECTED_FIELDS - 1;
+
+    private final InventoryService inventoryService;
+    private final ForkJoinPool pool;
+
+    public CsvImportService(InventoryService inventoryService) {
+        this(inventoryService, ForkJoinPool.commonPool());
+    }
+
+    public CsvImportService(InventoryService inventoryService, ForkJoinPool pool) {
+        this.inventoryService = inventoryService;
+        this.pool = pool;
+    }
+
+    public static class ImportError {
+        private final int line;
+        private final String message;
+
+        public ImportError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Ligne " + line + " : " + message;
+        }
+    }
+
+    public static class ImportResult {
+        private final int importedCount;
+        private final List<ImportError> errors;
+
+        public ImportResult(int importedCount, List<ImportError> errors) {
+            this.importedCount = importedCount;
+            this.errors = errors;
+        }
+
+        public int getImportedCount() { return importedCount; }
+        public List<ImportError> getErrors() { return errors; }
+    }
+
+    public ImportResult importFromCSV(String filePath) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier CSV trop volumineux : " + filePath);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        RecordIndex records = indexRecords(data);
+
+        Map<String, Category> categoriesByName = new HashMap<>();
+        for (Category category : inventoryService.getAllCategories()) {
+            categoriesByName.putIfAbsent(category.getName(), category);
+        }
+        Map<String, Supplier> suppliersByName = new HashMap<>();
+        for (Supplier supplier : inventoryService.getAllSuppliers()) {
+            suppliersByName.putIfAbsent(supplier.getName(), supplier);
+        }
+
+        // Analyse parallèle (la première ligne est l'en-tête)
+        List<ForkJoinTask<ParsedChunk>> tasks = new ArrayList<>();
+        for (int from = 1; from < records.count; from += RECORDS_PER_CHUNK) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + RECORDS_PER_CHUNK, records.count);
+            tasks.add(pool.submit(ForkJoinTask.adapt(() ->
+                    parseChunk(data, records, chunkFrom, chunkTo, categoriesByName, suppliersByName))));
+        }
+        List<ParsedChunk> chunks = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<ParsedChunk> task : tasks) {
+            chunks.add(task.join());
+        }
+
+        List<ImportError> errors = new ArrayList<>();
+        List<Product> valid = new ArrayList<>();
+        List<Integer> validLines = new ArrayList<>();
+        for (ParsedChunk chunk : chunks) {
+            errors.addAll(chunk.errors);
+            valid.addAll(chunk.products);
+            validLines.addAll(chunk.lines);
+        }
+
+        // Insertion par lots avec un bloc d'IDs réservé d'avance
+        int imported = 0;
+        if (!valid.isEmpty()) {
+            int nextId = inventoryService.reserveProductIds(valid.size());
+            for (Product product : valid) {
+                product.setId(nextId++);
+            }
+            for (int from = 0; from < valid.size(); from += BATCH_SIZE) {
+                int to = Math.min(from + BATCH_SIZE, valid.size());
+                List<String> failures = inventoryService.addProducts(valid.subList(from, to));
+                for (int i = 0; i < failures.size(); i++) {
+                    if (failures.get(i) != null) {
+                        errors.add(new ImportError(validLines.get(from + i), failures.get(i)));
+                    } else {
+                        imported++;
+                    }
+                }
+            }
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.getLine(), b.getLine()));
+        return new ImportResult(imported, Collections.unmodifiableList(errors));
+    }
+
+    // ========== Repérage des enregistrements ==========
+
+    private static class RecordIndex {
+        int[] starts = new int[1024];
+        int[] lines = new int[1024];
+        int count;
+        int end;
+
+        void add(int start, int line) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                lines = Arrays.copyOf(lines, count * 2);
+            }
+            starts[count] = start;
+            lines[count] = line;
+            count++;
+        }
+    }
+
+    // Les octets ';', '"' et '\n' ne peuvent pas apparaître dans un caractère UTF-8 multi-octets
+    private static RecordIndex indexRecords(MappedByteBuffer data) {
+        RecordIndex index = new RecordIndex();
+        int limit = data.limit();
+        int position = 0;
+        // BOM UTF-8 éventuel
+        if (limit >= 3 && data.get(0) == (byte) 0xEF && data.get(1) == (byte) 0xBB && data.get(2) == (byte) 0xBF) {
+            position = 3;
+        }
+        boolean quoted = false;
+        boolean recordStart = true;
+        int line = 1;
+        for (; position < limit; position++) {
+            byte b = data.get(position);
+            if (recordStart) {
+                index.add(position, line);
+                recordStart = false;
+            }
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n') {
+                line++;
+                if (!quoted) {
+                    recordStart = true;
+                }
+            }
+        }
+        index.end = limit;
+        return index;
+    }
+
+    // ========== Analyse d'une tranche ==========
+
+    private static class ParsedChunk {
+        final List<Product> products = new ArrayList<>();
+        final List<Integer> lines = new ArrayList<>();
+        final List<ImportError> errors = new ArrayList<>();
+    }
+
+    private ParsedChunk parseChunk(MappedByteBuffer data, RecordIndex records, int from, int to,
+                                   Map<String, Category> categoriesByName, Map<String, Supplier> suppliersByName) {
+        ParsedChunk chunk = new ParsedChunk();
+        List<String> fields = new ArrayList<>(EXPECTED_FIELDS);
+        byte[] scratch = new byte[256];
+        for (int r = from; r < to; r++) {
+            int start = records.starts[r];
+            int end = r + 1 < records.count ? records.starts[r + 1] : records.end;
+            int line = records.lines[r];
+            scratch = splitRecord(data, start, end, fields, scratch);
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue; // ligne vide
+            }
+            try {
+                chunk.products.add(toProduct(fields, categoriesByName, suppliersByName));
+                chunk.lines.add(line);
+            } catch (IllegalArgumentException e) {
+                chunk.errors.add(new ImportError(line, e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    private static byte[] splitRecord(MappedByteBuffer data, int start, int end, List<String> fields, byte[] scratch) {
+        fields.clear();
+        // Retire la fin de ligne (\n ou \r\n)
+        if (end > start && data.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && data.get(end - 1) == '\r') {
+            end--;
+        }
+        int length = 0;
+        boolean quoted = false;
+        for (int position = start; position < end; position++) {
+            byte b = data.get(position);
+            if (quoted) {
+                if (b == '"') {
+                    if (position + 1 < end && data.get(position + 1) == '"') {
+                        b = '"';
+                        position++;
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                }
+            } else if (b == '"') {
+                quoted = true;
+                continue;
+            } else if (b == SEPARATOR) {
+                fields.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+                length = 0;
+                continue;
+            }
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratch.length * 2);
+            }
+            scratch[length++] = b;
+        }
+        fields.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        return scratch;
+    }
+
+    private static Product toProduct(List<String> fields, Map<String, Category> categoriesByName,
+                                     Map<String, Supplier> suppliersByName) {
+        // Un champ de trop vient en général d'un ';' hors guillemets : les colonnes sont décalées
+        if (fields.size() < REQUIRED_FIELDS || fields.size() > EXPECTED_FIELDS) {
+            throw new IllegalArgumentException(fields.size() + " champ(s) au lieu de " + EXPECTED_FIELDS
+                    + " (ou " + REQUIRED_FIELDS + " sans la valeur totale).");
+        }
+        String name = fields.get(1);
+        String price = fields.get(3).replace(',', '.');
+        String quantity = fields.get(4);
+        String minStock = fields.get(5);
+        String sku = fields.get(8);
+
+        StringBuilder errors = new StringBuilder();
+        if (!ValidationUtils.isNotEmpty(name)) {
+            errors.append("Le nom est requis. ");
+        }
+        if (!ValidationUtils.isValidPrice(price)) {
+            errors.append("Prix invalide : ").append(fields.get(3)).append(". ");
+        }
+        if (!ValidationUtils.isValidQuantity(quantity)) {
+            errors.append("Quantité invalide : ").append(quantity).append(". ");
+        }
+        if (!ValidationUtils.isValidStockLevel(minStock)) {
+            errors.append("Stock minimum invalide : ").append(minStock).append(". ");
+        }
+        if (!ValidationUtils.isNotEmpty(sku)) {
+            errors.append("Le SKU est requis. ");
+        }
+
+        Category category = null;
+        String categoryName = fields.get(6);
+        if (ValidationUtils.isNotEmpty(categoryName) && !"N/A".equals(categoryName)) {
+            category = categoriesByName.get(categoryName);
+            if (category == null) {
+                errors.append("Catégorie inconnue : ").append(categoryName).append(". ");
+            }
+        }
+        Supplier supplier = null;
+        String supplierName = fields.get(7);
+        if (ValidationUtils.isNotEmpty(supplierName) && !"N/A".equals(supplierName)) {
+            supplier = suppliersByName.get(supplierName);
+            if (supplier == null) {
+                errors.append("Fournisseur inconnu : ").append(supplierName).append(". ");
+            }
+        }
+        if (errors.length() > 0) {
+            throw new IllegalArgumentException(errors.toString().trim());
+        }
+
+        return new Product(0, name, fields.get(2), Double.parseDouble(price),
+                Integer.parseInt(quantity), Integer.parseInt(minStock), category, supplier, sku);
+    }
+}
@@ -0,0 +1,51 @@
+package Services;
+
+import Models.Product;
+import Utils.CsvWriter;
+
+import java.nio.file.Path;
+
+// Export CSV (séparateur ';'), relu par CsvImportService
+public class CsvReportSink implements ReportSink {
+
+    private final Path path;
+    private CsvWriter csv;
+
+    public CsvReportSink(String filePath) {
+        this.path = Path.of(filePath);
+    }
+
+    @Override
+    public void begin() throws Exception {
+        csv = new CsvWriter(path, ';');
+        csv.field("ID").field("Nom").field("Description").field("Prix").field("Quantité")
+                .field("Stock Minimum").field("Catégorie").field("Fournisseur").field("SKU")
+                .field("Valeur Totale").endRow();
+    }
+
+    @Override
+    public void accept(Product product) throws Exception {
+        csv.field(product.getId())
+                .field(product.getName())
+                .field(product.getDescription())
+                .decimalField(product.getPrice())
+                .field(product.getQuantity())
+                .field(product.getMinStockLevel())
+                .field(product.getCategory() != null ? product.getCategory().getName() : "N/A")
+                .field(product.getSupplier() != null ? product.getSupplier().getName() : "N/A")
+                .field(product.getSku())
+                .decimalField(product.getTotalValue())
+                .endRow();
+    }
+
+    @Override
+    public void end(ReportTotals totals) {
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (csv != null) {
+            csv.close();
+        }
+    }
+}
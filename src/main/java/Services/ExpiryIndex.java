@@ -0,0 +1,84 @@
+package Services;
+
+import Models.InventoryListener;
+import Models.Product;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Index des produits par date d'expiration : clés (jour, ID) triées dans une skip list,
+// (epochDay << 32) | id, soit l'ordre des dates puis des IDs. Les produits sans date
+// n'y figurent pas.
+// Les lectures ne prennent aucun verrou ; les mises à jour d'un même produit arrivent
+// dans l'ordre où elles ont été appliquées (voir InventoryListener).
+public class ExpiryIndex implements InventoryListener {
+
+    private final ConcurrentSkipListSet<Long> byDate = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Integer, Long> keyById = new ConcurrentHashMap<>();
+
+    // ========== Synchronisation avec l'inventaire ==========
+
+    @Override
+    public void productAdded(Product product) {
+        LocalDate date = product.getExpirationDate();
+        if (date == null) {
+            productRemoved(product);
+            return;
+        }
+        long key = key(date, product.getId());
+        Long previous = keyById.put(product.getId(), key);
+        if (previous == null || previous != key) {
+            byDate.add(key);
+            if (previous != null) {
+                byDate.remove(previous);
+            }
+        }
+    }
+
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        productAdded(current);
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        Long previous = keyById.remove(product.getId());
+        if (previous != null) {
+            byDate.remove(previous);
+        }
+    }
+
+    // ========== Requêtes ==========
+
+    // IDs des produits expirant dans [from, to), par date puis ID ; from null : sans borne basse
+    public int[] idsExpiringBetween(LocalDate from, LocalDate to) {
+        if (from != null && !from.isBefore(to)) {
+            return new int[0];
+        }
+        NavigableSet<Long> range = from != null
+                ? byDate.subSet(key(from, 0), true, key(to, 0), false)
+                : byDate.headSet(key(to, 0), false);
+        int[] ids = new int[16];
+        int count = 0;
+        for (long key : range) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = (int) key;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    // Première date d'expiration à partir de from (incluse), null s'il n'y en a pas
+    public LocalDate nextExpiration(LocalDate from) {
+        Long key = byDate.ceiling(key(from, 0));
+        return key != null ? LocalDate.ofEpochDay(key >> 32) : null;
+    }
+
+    private static long key(LocalDate date, int productId) {
+        return (date.toEpochDay() << 32) | (productId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,126 @@
+package Services;
+
+import Models.InventoryListener;
+import Models.Product;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Signale les produits qui expirent au fil des jours : un produit est expiré le lendemain
+// de sa date d'expiration. Le prochain réveil est la fin de la prochaine date de l'ExpiryIndex,
+// sans parcours du catalogue ; un ajout ou une modification qui avance cette date replanifie
+// le réveil. Les produits déjà expirés au démarrage (ou ajoutés avec une date passée) ne sont
+// pas signalés : voir InventoryService.getExpired.
+public class ExpiryScheduler implements InventoryListener {
+
+    // Réveil au moins toutes les heures : rattrape un changement d'heure ou de date système
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final InventoryService inventoryService;
+    private final ExpiryIndex index;
+    private final Consumer<Product> onExpired;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+
+    // Champs du thread de planification : les produits expirant avant notifiedBefore ont été signalés
+    private LocalDate notifiedBefore;
+    private ScheduledFuture<?> wakeUp;
+    // Instant (ms) du prochain réveil prévu pour une expiration
+    private volatile long nextExpiryMillis = Long.MAX_VALUE;
+
+    // onExpired est appelé sur le thread de planification
+    public ExpiryScheduler(InventoryService inventoryService, Consumer<Product> onExpired) {
+        this(inventoryService, onExpired, Clock.systemDefaultZone());
+    }
+
+    public ExpiryScheduler(InventoryService inventoryService, Consumer<Product> onExpired, Clock clock) {
+        this.inventoryService = inventoryService;
+        this.index = inventoryService.expiryIndex();
+        this.onExpired = onExpired;
+        this.clock = clock;
+        this.notifiedBefore = LocalDate.now(clock);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        inventoryService.addChangeListener(this);
+        executor.execute(this::check);
+    }
+
+    public void shutdown() {
+        inventoryService.removeChangeListener(this);
+        executor.shutdownNow();
+    }
+
+    // ========== Replanification ==========
+
+    // Appelé dans la section critique de la mutation : simple comparaison, le calcul se fait
+    // sur le thread de planification
+    @Override
+    public void productAdded(Product product) {
+        LocalDate date = product.getExpirationDate();
+        if (date == null) {
+            return;
+        }
+        long expiry = endOf(date);
+        if (expiry < nextExpiryMillis && expiry > clock.millis()) {
+            nextExpiryMillis = expiry;
+            try {
+                executor.execute(this::check);
+            } catch (RejectedExecutionException e) {
+                // Planificateur arrêté
+            }
+        }
+    }
+
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        productAdded(current);
+    }
+
+    // ========== Thread de planification ==========
+
+    private void check() {
+        LocalDate today = LocalDate.now(clock);
+        if (today.isAfter(notifiedBefore)) {
+            for (int id : index.idsExpiringBetween(notifiedBefore, today)) {
+                Product product = inventoryService.getProductById(id);
+                // Date modifiée depuis la lecture de l'index : le produit sera vu à sa nouvelle date
+                if (product != null && product.getExpirationDate() != null
+                        && product.getExpirationDate().isBefore(today)) {
+                    signal(product);
+                }
+            }
+            notifiedBefore = today;
+        }
+
+        LocalDate next = index.nextExpiration(today);
+        nextExpiryMillis = next != null ? endOf(next) : Long.MAX_VALUE;
+        long delay = Math.min(Math.max(0, nextExpiryMillis - clock.millis()), MAX_SLEEP_MILLIS);
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUp = executor.schedule(this::check, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void signal(Product product) {
+        try {
+            onExpired.accept(product);
+        } catch (RuntimeException e) {
+            System.err.println("Erreur lors du signalement de l'expiration du produit "
+                    + product.getId() + " : " + e.getMessage());
+        }
+    }
+
+    // Début du jour suivant la date, dans le fuseau de l'horloge
+    private long endOf(LocalDate date) {
+        return date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,94 @@
+package Services;
+
+import javafx.application.Platform;
+
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+// Export lancé par ExportJobScheduler. L'avancement et la fin sont transmis au thread
+// JavaFX via Platform.runLater, au plus une mise à jour en attente et toutes les 100 ms.
+public class ExportJob implements ExportProgress {
+
+    public enum Status { PENDING, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+
+    private final Path target;
+    private final DoubleConsumer onProgress;
+    private final Consumer<ExportJob> onFinished;
+    private final AtomicBoolean progressPending = new AtomicBoolean();
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.PENDING);
+    private volatile boolean cancelRequested;
+    private volatile double progress;
+    private volatile Throwable error;
+    private long lastPublished;
+
+    ExportJob(Path target, DoubleConsumer onProgress, Consumer<ExportJob> onFinished) {
+        this.target = target;
+        this.onProgress = onProgress;
+        this.onFinished = onFinished;
+        this.lastPublished = System.nanoTime() - PROGRESS_INTERVAL_NANOS;
+    }
+
+    public Path getTarget() { return target; }
+    public Status getStatus() { return status.get(); }
+    public double getProgress() { return progress; }
+    public Throwable getError() { return error; }
+
+    public boolean isDone() {
+        Status current = status.get();
+        return current != Status.PENDING && current != Status.RUNNING;
+    }
+
+    // Un export en cours s'arrête à sa prochaine mise à jour d'avancement
+    public void cancel() {
+        cancelRequested = true;
+        if (status.compareAndSet(Status.PENDING, Status.CANCELLED)) {
+            Platform.runLater(() -> onFinished.accept(this));
+        }
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void checkCancelled() {
+        if (cancelRequested) {
+            throw new CancellationException("Export annulé");
+        }
+    }
+
+    // false si l'export a été annulé avant de démarrer
+    boolean start() {
+        return status.compareAndSet(Status.PENDING, Status.RUNNING);
+    }
+
+    @Override
+    public void update(long done, long total) {
+        checkCancelled();
+        progress = total > 0 ? Math.min(1.0, (double) done / total) : 1.0;
+        long now = System.nanoTime();
+        if (now - lastPublished >= PROGRESS_INTERVAL_NANOS && progressPending.compareAndSet(false, true)) {
+            lastPublished = now;
+            Platform.runLater(() -> {
+                progressPending.set(false);
+                if (!isDone()) {
+                    onProgress.accept(progress);
+                }
+            });
+        }
+    }
+
+    void finish(Status finalStatus, Throwable failure) {
+        error = failure;
+        if (finalStatus == Status.SUCCEEDED) {
+            progress = 1.0;
+        }
+        status.set(finalStatus);
+        Platform.runLater(() -> onFinished.accept(this));
+    }
+}
@@ -0,0 +1,85 @@
+package Services;
+
+import Models.Inventory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+// Exports PDF/CSV hors du thread JavaFX. Chaque export travaille sur sa propre copie de
+// l'inventaire, prise sous verrou exclusif au démarrage : plusieurs exports peuvent tourner
+// en parallèle pendant que l'inventaire continue d'être modifié.
+public class ExportJobScheduler {
+
+    private final InventoryService inventoryService;
+    private final ExportService exportService = new ExportService();
+    private final FileService fileService = new FileService();
+    private final ExecutorService executor;
+
+    public ExportJobScheduler(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Threads démons : un export en cours n'empêche pas l'application de se fermer
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "inventory-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static boolean isSupported(String filePath) {
+        return filePath.endsWith(".csv") || filePath.endsWith(".pdf");
+    }
+
+    // onProgress et onFinished sont appelés sur le thread JavaFX
+    public ExportJob submit(String filePath, DoubleConsumer onProgress, Consumer<ExportJob> onFinished) {
+        if (!isSupported(filePath)) {
+            throw new IllegalArgumentException("Format de fichier non supporté : " + filePath);
+        }
+        ExportJob job = new ExportJob(Path.of(filePath), onProgress, onFinished);
+        executor.execute(() -> run(job, filePath));
+        return job;
+    }
+
+    private void run(ExportJob job, String filePath) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            job.checkCancelled();
+            Inventory snapshot = inventoryService.snapshot();
+            job.checkCancelled();
+            if (filePath.endsWith(".csv")) {
+                fileService.exportToCSV(snapshot, filePath, job);
+            } else {
+                exportService.exportToPDF(snapshot, filePath, job);
+            }
+            job.finish(ExportJob.Status.SUCCEEDED, null);
+        } catch (Exception | OutOfMemoryError e) {
+            deletePartialFile(job.getTarget());
+            // L'annulation peut ressortir enveloppée par iText lors de la fermeture du document
+            if (job.isCancelRequested()) {
+                job.finish(ExportJob.Status.CANCELLED, null);
+            } else {
+                job.finish(ExportJob.Status.FAILED, e);
+            }
+        }
+    }
+
+    private static void deletePartialFile(Path target) {
+        try {
+            Files.deleteIfExists(target);
+        } catch (Exception e) {
+            System.err.println("Suppression de l'export incomplet impossible : " + e.getMessage());
+        }
+    }
+
+    // Les exports déjà soumis vont à leur terme ; aucun nouvel export n'est accepté
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,10 @@
+package Services;
+
+// Avancement d'un export ; une implémentation peut lever CancellationException pour l'interrompre
+@FunctionalInterface
+public interface ExportProgress {
+
+    ExportProgress NONE = (done, total) -> { };
+
+    void update(long done, long total);
+}
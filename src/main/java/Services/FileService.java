@@ -2,58 +2,63 @@ package Services;
 
 import Models.Inventory;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 public class FileService {
 
+    private final InventorySnapshotFormat snapshotFormat = new InventorySnapshotFormat();
+
+    // Écrit dans un fichier temporaire puis le renomme : un inventaire chargé
+    // paresseusement depuis l'ancien fichier garde son mappage valide
     public void saveInventory(Inventory inventory, String filePath) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
-            oos.writeObject(inventory);
+        Path target = Path.of(filePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        snapshotFormat.write(inventory, temp);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Mappe le fichier en mémoire et ne décode les produits qu'à leur premier accès.
+    // Les anciens fichiers .ser sont chargés entièrement.
+    public Inventory loadInventoryLazily(String filePath) throws IOException, ClassNotFoundException {
+        Path path = Path.of(filePath);
+        if (InventorySnapshotFormat.isSnapshotFile(path)) {
+            return new MappedInventoryLoader().load(path);
         }
+        return loadLegacyInventory(filePath);
     }
 
+    // Lit le format binaire, ou un ancien fichier .ser (sérialisation Java)
     public Inventory loadInventory(String filePath) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
+        Path path = Path.of(filePath);
+        if (InventorySnapshotFormat.isSnapshotFile(path)) {
+            return snapshotFormat.read(path);
+        }
+        return loadLegacyInventory(filePath);
+    }
+
+    public Inventory loadLegacyInventory(String filePath) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
             return (Inventory) ois.readObject();
         }
     }
 
+    // Convertit un ancien fichier .ser au format binaire
+    public void migrateLegacyInventory(String legacyFilePath, String filePath) throws IOException, ClassNotFoundException {
+        saveInventory(loadLegacyInventory(legacyFilePath), filePath);
+    }
+
     public void exportToCSV(Inventory inventory, String filePath) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("ID;Nom;Description;Prix;Quantité;Stock Minimum;Catégorie;Fournisseur;SKU;Valeur Totale");
-
-            for (var product : inventory.getProducts()) {
-                writer.println(String.format("%d;%s;%s;%.2f;%d;%d;%s;%s;%s;%.2f",
-                        product.getId(),
-                        product.getName(),
-                        product.getDescription(),
-                        product.getPrice(),
-                        product.getQuantity(),
-                        product.getMinStockLevel(),
-                        product.getCategory() != null ? product.getCategory().getName() : "N/A",
-                        product.getSupplier() != null ? product.getSupplier().getName() : "N/A",
-                        product.getSku(),
-                        product.getTotalValue()));
-            }
-        }
+        exportToCSV(inventory, filePath, ExportProgress.NONE);
+    }
+
+    // Voir CsvReportSink ; pour produire plusieurs rapports en un parcours, utiliser ReportPipeline
+    public void exportToCSV(Inventory inventory, String filePath, ExportProgress progress) throws IOException {
+        new ReportPipeline().add(new CsvReportSink(filePath)).run(inventory, progress);
     }
 
     public void exportLowStockReport(Inventory inventory, String filePath) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("=== RAPPORT STOCK FAIBLE ===\n");
-            writer.println("Produits avec stock faible:\n");
-            writer.println("ID\tNom\tQuantité\tStock Minimum");
-
-            for (var product : inventory.getLowStockProducts()) {
-                writer.println(String.format("%d\t%s\t%d\t\t%d",
-                        product.getId(),
-                        product.getName(),
-                        product.getQuantity(),
-                        product.getMinStockLevel()));
-            }
-
-            writer.println("\n=== TOTAL ===\n");
-            writer.println("Nombre de produits en stock faible: " + inventory.getLowStockProducts().size());
-            writer.println("Valeur totale de l'inventaire: " + inventory.getTotalInventoryValue() + " €");
-        }
+        new ReportPipeline().add(new LowStockReportSink(filePath)).run(inventory);
     }
-}
\ No newline at end of file
+}
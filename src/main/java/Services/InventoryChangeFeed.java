@@ -0,0 +1,110 @@
+package Services;
+
+import Models.InventoryListener;
+import Models.Product;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Flux de modifications de l'inventaire pour l'interface : les événements reçus depuis
+// n'importe quel thread sont regroupés par produit et livrés en un seul lot sur le thread
+// JavaFX (au plus un Platform.runLater en attente, donc un lot par pulse).
+public class InventoryChangeFeed implements InventoryListener, AutoCloseable {
+
+    private final InventoryService inventoryService;
+    private final Consumer<InventoryChanges> onChanges;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private Map<Integer, Product> added = new LinkedHashMap<>();
+    private Map<Integer, Product> updated = new LinkedHashMap<>();
+    private Map<Integer, Product> removed = new LinkedHashMap<>();
+    private volatile boolean closed;
+
+    public InventoryChangeFeed(InventoryService inventoryService, Consumer<InventoryChanges> onChanges) {
+        this.inventoryService = inventoryService;
+        this.onChanges = onChanges;
+        inventoryService.addChangeListener(this);
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        synchronized (this) {
+            added.put(product.getId(), product);
+        }
+        scheduleFlush();
+    }
+
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        changed(current);
+    }
+
+    @Override
+    public void stockMoved(Product product, int quantityDelta, int reservedDelta) {
+        changed(product);
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        synchronized (this) {
+            updated.remove(product.getId());
+            // Ajouté puis supprimé dans le même lot : rien à signaler
+            if (added.remove(product.getId()) == null) {
+                removed.put(product.getId(), product);
+            }
+        }
+        scheduleFlush();
+    }
+
+    private void changed(Product product) {
+        synchronized (this) {
+            if (added.containsKey(product.getId())) {
+                added.put(product.getId(), product);
+            } else {
+                updated.put(product.getId(), product);
+            }
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!closed && flushScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        Map<Integer, Product> addedBatch;
+        Map<Integer, Product> updatedBatch;
+        Map<Integer, Product> removedBatch;
+        synchronized (this) {
+            addedBatch = added;
+            updatedBatch = updated;
+            removedBatch = removed;
+            added = new LinkedHashMap<>();
+            updated = new LinkedHashMap<>();
+            removed = new LinkedHashMap<>();
+        }
+        if (closed || addedBatch.isEmpty() && updatedBatch.isEmpty() && removedBatch.isEmpty()) {
+            return;
+        }
+        onChanges.accept(new InventoryChanges(
+                Collections.unmodifiableList(new ArrayList<>(addedBatch.values())),
+                Collections.unmodifiableList(new ArrayList<>(updatedBatch.values())),
+                Collections.unmodifiableList(new ArrayList<>(removedBatch.values())),
+                inventoryService.getTotalProductsCount(),
+                inventoryService.getTotalInventoryValue(),
+                inventoryService.getLowStockCount()));
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        inventoryService.removeChangeListener(this);
+    }
+}
@@ -0,0 +1,37 @@
+package Services;
+
+import Models.Product;
+
+import java.util.List;
+
+// Lot de modifications regroupées par InventoryChangeFeed, avec les agrégats de l'inventaire
+// après application du lot. Un produit n'apparaît que dans une seule des trois listes.
+public class InventoryChanges {
+    private final List<Product> added;
+    private final List<Product> updated;
+    private final List<Product> removed;
+    private final int productCount;
+    private final double totalValue;
+    private final int lowStockCount;
+
+    InventoryChanges(List<Product> added, List<Product> updated, List<Product> removed,
+                     int productCount, double totalValue, int lowStockCount) {
+        this.added = added;
+        this.updated = updated;
+        this.removed = removed;
+        this.productCount = productCount;
+        this.totalValue = totalValue;
+        this.lowStockCount = lowStockCount;
+    }
+
+    public List<Product> getAdded() { return added; }
+    public List<Product> getUpdated() { return updated; }
+    public List<Product> getRemoved() { return removed; }
+    public int getProductCount() { return productCount; }
+    public double getTotalValue() { return totalValue; }
+    public int getLowStockCount() { return lowStockCount; }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,330 @@
+package Services;
+
+import Models.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static Services.InventorySnapshotFormat.*;
+
+// Journal des mutations de l'inventaire (write-ahead log).
+//
+// Répertoire : inventory.inv (dernier instantané) + journal-<génération>.log.
+// Chaque mutation est ajoutée en fin de segment courant sous forme de bloc
+// (type, longueur, contenu, CRC32, comme InventorySnapshotFormat). Les fsync sont
+// regroupés : un fil d'arrière-plan force le segment sur disque toutes les
+// groupCommitMillis, on perd donc au plus une fenêtre en cas de panne.
+// Le journal est écrit après la mutation en mémoire : si une écriture échoue, la mémoire
+// est en avance sur le disque. Le journal passe alors en échec et refuse les mutations
+// suivantes (checkWritable) jusqu'à ce qu'une compaction réécrive un instantané complet.
+// La compaction (InventoryService.compactJournal) ouvre un nouveau segment, écrit un
+// instantané qui le référence, puis supprime les segments précédents.
+public class InventoryJournal implements InventoryListener, Closeable {
+
+    public static final String SNAPSHOT_FILE = "inventory.inv";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+
+    static final byte RECORD_PRODUCT_ADDED = 1;
+    static final byte RECORD_PRODUCT_UPDATED = 2;
+    static final byte RECORD_PRODUCT_REMOVED = 3;
+    static final byte RECORD_STOCK_MOVED = 4;
+    static final byte RECORD_CATEGORY_ADDED = 5;
+    static final byte RECORD_SUPPLIER_ADDED = 6;
+
+    private final Path directory;
+    private final BlockWriter record = new BlockWriter();
+    private final ScheduledExecutorService scheduler;
+    private FileChannel channel;
+    private long generation;
+    // Enregistrements ajoutés / forcés sur disque dans le segment courant
+    private long appended;
+    private long forced;
+    private IOException failure;
+    private long failureGeneration;
+
+    private InventoryJournal(Path directory, long generation, long groupCommitMillis) throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = openSegment(generation);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::commitQuietly, groupCommitMillis, groupCommitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== Ouverture et reprise ==========
+
+    // Recharge le dernier instantané du répertoire et rejoue les segments qui le suivent.
+    // Un répertoire vide est initialisé avec l'inventaire fourni.
+    public static Inventory recover(Path directory, Inventory initialInventory) throws IOException {
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        InventorySnapshotFormat format = new InventorySnapshotFormat();
+        if (!Files.exists(snapshot)) {
+            format.write(initialInventory, snapshot, 0);
+        }
+        Inventory inventory = format.read(snapshot);
+        long fromGeneration = Math.max(0, InventorySnapshotFormat.readJournalGeneration(snapshot));
+        for (long segment : listSegments(directory)) {
+            if (segment >= fromGeneration) {
+                replaySegment(directory.resolve(segmentName(segment)), inventory);
+            }
+        }
+        return inventory;
+    }
+
+    // Ouvre un nouveau segment après les segments existants
+    public static InventoryJournal open(Path directory, long groupCommitMillis) throws IOException {
+        List<Long> segments = listSegments(directory);
+        long next = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+        long snapshotGeneration = InventorySnapshotFormat.readJournalGeneration(directory.resolve(SNAPSHOT_FILE));
+        return new InventoryJournal(directory, Math.max(next, snapshotGeneration), groupCommitMillis);
+    }
+
+    private static void replaySegment(Path segment, Inventory inventory) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            while (in.position() < in.size()) {
+                ByteBuffer payload;
+                byte type;
+                try {
+                    ByteBuffer header = readFully(in, BLOCK_HEADER_SIZE);
+                    type = header.get();
+                    int length = header.getInt();
+                    if (length < 0 || length + 4L > in.size() - in.position()) {
+                        return; // dernier enregistrement incomplet (panne pendant l'écriture)
+                    }
+                    payload = readFully(in, length + 4);
+                    int expectedCrc = payload.getInt(length);
+                    payload.limit(length);
+                    checkCrc(payload, expectedCrc, type);
+                } catch (EOFException e) {
+                    return; // en-tête lui-même incomplet
+                } catch (IOException e) {
+                    if (in.position() >= in.size()) {
+                        return; // CRC invalide en fin de segment : écriture interrompue
+                    }
+                    throw e;
+                }
+                apply(type, payload, inventory);
+            }
+        }
+    }
+
+    private static void apply(byte type, ByteBuffer in, Inventory inventory) {
+        switch (type) {
+            case RECORD_PRODUCT_ADDED -> inventory.addProduct(
+                    readProduct(in, null, inventory::getCategoryById, inventory::getSupplierById));
+            case RECORD_PRODUCT_UPDATED -> inventory.updateProduct(
+                    readProduct(in, null, inventory::getCategoryById, inventory::getSupplierById));
+            case RECORD_PRODUCT_REMOVED -> inventory.deleteProduct(getVarInt(in));
+            case RECORD_STOCK_MOVED -> inventory.replayStockMovement(
+                    getVarInt(in), getSignedVarInt(in), getSignedVarInt(in));
+            case RECORD_CATEGORY_ADDED -> inventory.addCategory(
+                    new Category(getVarInt(in), getString(in), getString(in)));
+            case RECORD_SUPPLIER_ADDED -> inventory.addSupplier(new Supplier(getVarInt(in),
+                    getString(in), getString(in), getString(in), getString(in), getString(in)));
+            default -> throw new IllegalStateException("Enregistrement de journal inconnu : " + type);
+        }
+    }
+
+    // ========== Écriture des mutations ==========
+
+    @Override
+    public void productAdded(Product product) {
+        append(RECORD_PRODUCT_ADDED, block -> writeProduct(block, product, null));
+    }
+
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        append(RECORD_PRODUCT_UPDATED, block -> writeProduct(block, current, null));
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        append(RECORD_PRODUCT_REMOVED, block -> block.putVarInt(product.getId()));
+    }
+
+    @Override
+    public void stockMoved(Product product, int quantityDelta, int reservedDelta) {
+        append(RECORD_STOCK_MOVED, block -> {
+            block.putVarInt(product.getId());
+            block.putSignedVarInt(quantityDelta);
+            block.putSignedVarInt(reservedDelta);
+        });
+    }
+
+    @Override
+    public void categoryAdded(Category category) {
+        append(RECORD_CATEGORY_ADDED, block -> {
+            block.putVarInt(category.getId());
+            block.putString(category.getName());
+            block.putString(category.getDescription());
+        });
+    }
+
+    @Override
+    public void supplierAdded(Supplier supplier) {
+        append(RECORD_SUPPLIER_ADDED, block -> {
+            block.putVarInt(supplier.getId());
+            block.putString(supplier.getName());
+            block.putString(supplier.getContactPerson());
+            block.putString(supplier.getPhone());
+            block.putString(supplier.getEmail());
+            block.putString(supplier.getAddress());
+        });
+    }
+
+    // Rien n'est écrit après un échec : un bloc partiel ne peut être qu'en fin de segment
+    private synchronized void append(byte type, Consumer<BlockWriter> encoder) {
+        if (failure != null) {
+            throw diverged(failure);
+        }
+        encoder.accept(record);
+        try {
+            record.flush(channel, type);
+            appended++;
+        } catch (IOException e) {
+            failure = e;
+            failureGeneration = generation;
+            throw diverged(e);
+        }
+    }
+
+    private static UncheckedIOException diverged(IOException cause) {
+        return new UncheckedIOException("Écriture du journal impossible : la modification est appliquée en mémoire"
+                + " mais absente du journal, les mutations sont refusées jusqu'à la prochaine compaction", cause);
+    }
+
+    // Appelé avant chaque mutation : échoue sans rien modifier si une écriture précédente a échoué
+    public synchronized void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal en échec, mutation refusée jusqu'à la prochaine compaction", failure);
+        }
+    }
+
+    // ========== Validation groupée et compaction ==========
+
+    // Force sur disque tout ce qui a été ajouté depuis la dernière validation
+    public void commit() throws IOException {
+        FileChannel current;
+        long target;
+        synchronized (this) {
+            if (forced == appended) {
+                return;
+            }
+            target = appended;
+            current = channel;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            return; // segment fermé par rotate(), qui l'a déjà forcé
+        }
+        // Marqué validé seulement après un force réussi ; en cas d'échec, le prochain commit réessaie
+        synchronized (this) {
+            if (channel == current) {
+                forced = Math.max(forced, target);
+            }
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("Validation du journal impossible : " + e.getMessage());
+        }
+    }
+
+    // Ferme le segment courant et en ouvre un nouveau ; retourne sa génération.
+    // L'appelant doit bloquer les mutations pendant l'appel.
+    public synchronized long rotate() throws IOException {
+        // Segment en échec : l'instantané qui suit la rotation le remplace
+        if (failure == null) {
+            channel.force(false);
+        }
+        channel.close();
+        generation++;
+        channel = openSegment(generation);
+        appended = 0;
+        forced = 0;
+        return generation;
+    }
+
+    // Écrit l'instantané couvrant les segments antérieurs à generation, puis les supprime
+    public void compact(Inventory snapshot, long generation) throws IOException {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        new InventorySnapshotFormat().write(snapshot, temp, generation);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (long segment : listSegments(directory)) {
+            if (segment < generation) {
+                Files.deleteIfExists(directory.resolve(segmentName(segment)));
+            }
+        }
+        // L'instantané contient les mutations non journalisées d'un segment précédent
+        synchronized (this) {
+            if (failure != null && failureGeneration < generation) {
+                failure = null;
+            }
+        }
+    }
+
+    public void scheduleCompaction(Runnable compaction, long intervalSeconds) {
+        scheduler.scheduleWithFixedDelay(compaction, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        synchronized (this) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    // ========== Fichiers ==========
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(directory.resolve(segmentName(segment)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static String segmentName(long segment) {
+        return "journal-" + segment + ".log";
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        segments.sort(null);
+        return segments;
+    }
+}
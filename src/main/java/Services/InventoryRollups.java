@@ -0,0 +1,149 @@
+package Services;
+
+import Models.InventoryListener;
+import Models.Product;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Totaux par catégorie et par fournisseur (nombre de produits, quantité, valeur, produits en
+// stock faible), mis à jour à chaque mutation plutôt que recalculés : une lecture coûte
+// O(nombre de groupes). Les produits sans catégorie ou sans fournisseur ne sont pas comptés
+// dans le regroupement correspondant.
+// La contribution de chaque produit est conservée pour la retirer de ses anciens groupes
+// (changement de catégorie ou de fournisseur, suppression).
+public class InventoryRollups implements InventoryListener {
+
+    private static final int NONE = -1;
+
+    private final ConcurrentHashMap<Integer, Group> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Group> bySupplier = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Contribution> contributions = new ConcurrentHashMap<>();
+
+    // ========== Synchronisation avec l'inventaire ==========
+
+    @Override
+    public void productAdded(Product product) {
+        Contribution contribution = new Contribution(product);
+        Contribution previous = contributions.put(product.getId(), contribution);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(contribution, 1);
+    }
+
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        productAdded(current);
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        Contribution previous = contributions.remove(product.getId());
+        if (previous != null) {
+            apply(previous, -1);
+        }
+    }
+
+    // Les mouvements concurrents d'un même produit s'additionnent dans n'importe quel ordre
+    @Override
+    public void stockMoved(Product product, int quantityDelta, int reservedDelta) {
+        Contribution contribution = contributions.get(product.getId());
+        if (contribution == null || quantityDelta == 0) {
+            return;
+        }
+        synchronized (contribution) {
+            contribution.quantity += quantityDelta;
+        }
+        add(contribution, 0, quantityDelta, quantityDelta * contribution.price, 0);
+    }
+
+    // Les bascules d'un même produit arrivent une à une (voir Inventory.reconcileLowStock) ;
+    // l'ajout et la modification ont déjà pris en compte l'état du produit
+    @Override
+    public void lowStockChanged(Product product, boolean lowStock) {
+        Contribution contribution = contributions.get(product.getId());
+        if (contribution == null || contribution.lowStock == lowStock) {
+            return;
+        }
+        contribution.lowStock = lowStock;
+        add(contribution, 0, 0, 0, lowStock ? 1 : -1);
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        int quantity;
+        synchronized (contribution) {
+            quantity = contribution.quantity;
+        }
+        add(contribution, sign, (long) sign * quantity, sign * quantity * contribution.price,
+                contribution.lowStock ? sign : 0);
+    }
+
+    private void add(Contribution contribution, long products, long quantity, double value, long lowStock) {
+        if (contribution.categoryId != NONE) {
+            byCategory.computeIfAbsent(contribution.categoryId, k -> new Group())
+                    .add(products, quantity, value, lowStock);
+        }
+        if (contribution.supplierId != NONE) {
+            bySupplier.computeIfAbsent(contribution.supplierId, k -> new Group())
+                    .add(products, quantity, value, lowStock);
+        }
+    }
+
+    // ========== Lecture ==========
+
+    public Map<Integer, StockRollup> getCategoryRollups() {
+        return snapshot(byCategory);
+    }
+
+    public Map<Integer, StockRollup> getSupplierRollups() {
+        return snapshot(bySupplier);
+    }
+
+    private static Map<Integer, StockRollup> snapshot(Map<Integer, Group> groups) {
+        Map<Integer, StockRollup> rollups = new LinkedHashMap<>();
+        groups.forEach((id, group) -> rollups.put(id, group.snapshot()));
+        return rollups;
+    }
+
+    // ========== Structures internes ==========
+
+    // Ce qu'un produit apporte à sa catégorie et à son fournisseur
+    private static class Contribution {
+        final int categoryId;
+        final int supplierId;
+        final double price;
+        int quantity;
+        volatile boolean lowStock;
+
+        Contribution(Product product) {
+            this.categoryId = product.getCategory() != null ? product.getCategory().getId() : NONE;
+            this.supplierId = product.getSupplier() != null ? product.getSupplier().getId() : NONE;
+            this.price = product.getPrice();
+            this.quantity = product.getQuantity();
+            this.lowStock = product.isLowStock();
+        }
+    }
+
+    private static class Group {
+        private long productCount;
+        private long totalQuantity;
+        private double totalValue;
+        private long lowStockCount;
+
+        synchronized void add(long products, long quantity, double value, long lowStock) {
+            productCount += products;
+            totalQuantity += quantity;
+            totalValue += value;
+            lowStockCount += lowStock;
+            if (productCount == 0) {
+                totalValue = 0; // évite de garder une erreur d'arrondi résiduelle
+            }
+        }
+
+        synchronized StockRollup snapshot() {
+            return new StockRollup(productCount, totalQuantity, totalValue, lowStockCount);
+        }
+    }
+}
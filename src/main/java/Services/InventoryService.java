@@ -1,69 +1,596 @@
 package Services;
 
 import Models.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Service utilisable depuis plusieurs threads (scanners, imports, exports) :
+// - les ajouts/suppressions prennent le verrou exclusif ;
+// - les remplacements d'un produit existant passent en mode partagé, verrouillés par tranche d'ID ;
+// - les lectures ponctuelles sont optimistes et ne se bloquent pas derrière un écrivain.
 public class InventoryService {
     private Inventory inventory;
+    private final StampedLock lock = new StampedLock();
+    private InventoryJournal journal;
+    private final ChangeCounter changes = new ChangeCounter();
+    private volatile SortedProducts sortedCache;
+    private volatile ProductSearchIndex searchIndex;
+    private volatile ProductQueryIndex queryIndex;
+    private volatile ExpiryIndex expiryIndex;
+    private volatile LowStockEventPublisher lowStockEvents;
+    private volatile InventoryRollups rollups;
 
     public InventoryService() {
-        this.inventory = new Inventory();
+        this(new Inventory());
+    }
+
+    // Service sur un inventaire chargé depuis un fichier
+    public InventoryService(Inventory inventory) {
+        this.inventory = inventory;
+        inventory.addListener(changes);
+    }
+
+    // Service persistant : reprise depuis le répertoire (instantané + journal), puis chaque
+    // mutation est journalisée ; compaction en arrière-plan toutes les compactionSeconds
+    public static InventoryService openDurable(Path directory, long groupCommitMillis, long compactionSeconds)
+            throws IOException {
+        InventoryService service = new InventoryService(InventoryJournal.recover(directory, new Inventory()));
+        service.journal = InventoryJournal.open(directory, groupCommitMillis);
+        service.inventory.addListener(service.journal);
+        service.journal.scheduleCompaction(() -> {
+            try {
+                service.compactJournal();
+            } catch (IOException e) {
+                System.err.println("Compaction du journal impossible : " + e.getMessage());
+            }
+        }, compactionSeconds);
+        return service;
+    }
+
+    // Remplace les segments de journal par un nouvel instantané. Les mutations ne sont
+    // bloquées que le temps de changer de segment et de copier l'inventaire.
+    public void compactJournal() throws IOException {
+        InventoryJournal current;
+        long generation;
+        Inventory snapshot;
+        long stamp = lock.writeLock();
+        try {
+            // Lu sous le verrou : close() retire le journal sous ce même verrou
+            current = journal;
+            if (current == null) {
+                return;
+            }
+            generation = current.rotate();
+            // Sous le verrou exclusif : l'instantané doit correspondre exactement au changement de segment
+            snapshot = inventory.copy();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        current.compact(snapshot, generation);
+    }
+
+    // Valide le journal sur disque et le ferme ; termine les abonnements au stock faible.
+    // Les écouteurs sont retirés sous le verrou exclusif : aucune mutation n'est en cours
+    // ni ne peut atteindre le journal une fois celui-ci fermé.
+    public void close() throws IOException {
+        LowStockEventPublisher events;
+        InventoryJournal closing;
+        long stamp = lock.writeLock();
+        try {
+            events = lowStockEvents;
+            if (events != null) {
+                inventory.removeListener(events);
+                lowStockEvents = null;
+            }
+            closing = journal;
+            if (closing != null) {
+                inventory.removeListener(closing);
+                journal = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (events != null) {
+            events.close();
+        }
+        if (closing != null) {
+            closing.commit();
+            closing.close();
+        }
+    }
+
+    // Abonnement aux mutations (voir InventoryChangeFeed pour l'interface)
+    public void addChangeListener(InventoryListener listener) {
+        inventory.addListener(listener);
+    }
+
+    public void removeChangeListener(InventoryListener listener) {
+        inventory.removeListener(listener);
+    }
+
+    // Bascules sous le seuil de stock et retours au-dessus, remises en asynchrone, chacune
+    // une fois et dans l'ordre pour un produit donné (voir LowStockEventPublisher)
+    public void subscribeLowStock(Flow.Subscriber<? super LowStockEvent> subscriber) {
+        LowStockEventPublisher events = lowStockEvents;
+        if (events == null) {
+            long stamp = lock.writeLock();
+            try {
+                events = lowStockEvents;
+                if (events == null) {
+                    events = new LowStockEventPublisher();
+                    inventory.addListener(events);
+                    lowStockEvents = events;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        events.subscribe(subscriber);
     }
 
     // ✅ MÉTHODE MANQUANTE (OBLIGATOIRE POUR L’EXPORT)
+    // Attention : l'inventaire retourné n'est pas synchronisé
     public Inventory getInventory() {
         return inventory;
     }
 
+    // Copie cohérente de l'inventaire (exports en arrière-plan) : les mouvements de stock
+    // prennent le verrou partagé, la copie se fait donc sous le verrou exclusif, à un instant
+    // commun à tous les produits. Hors tas, la copie reste hors tas (voir Inventory.copy)
+    public Inventory snapshot() {
+        long stamp = lock.writeLock();
+        try {
+            return inventory.copy();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
     // Gestion des produits
+    // Vue directe non synchronisée : pour un parcours concurrent, utiliser forEachProduct ou getProductsPage
     public List<Product> getAllProducts() {
         return inventory.getProducts();
     }
 
+    public List<Product> getProductsPage(int offset, int limit) {
+        return read(() -> new ArrayList<>(inventory.getProductsPage(offset, limit)));
+    }
+
+    // Page d'un ordre de tri donné (null : ordre de stockage). L'ordre complet est calculé
+    // une fois puis réutilisé pour les pages suivantes tant que l'inventaire ne change pas.
+    public List<Product> getProductsPage(int offset, int limit, Comparator<? super Product> order) {
+        if (order == null) {
+            return getProductsPage(offset, limit);
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset et limit doivent être positifs.");
+        }
+        Product[] sorted = sortedProducts(order);
+        int from = Math.min(offset, sorted.length);
+        int to = (int) Math.min((long) from + limit, sorted.length);
+        return new ArrayList<>(Arrays.asList(sorted).subList(from, to));
+    }
+
+    // Ordre complet figé au moment de l'appel (lecture seule) ; les produits modifiés
+    // depuis sont à relire par ID
+    public List<Product> getSortedProducts(Comparator<? super Product> order) {
+        return Collections.unmodifiableList(Arrays.asList(sortedProducts(order)));
+    }
+
+    private Product[] sortedProducts(Comparator<? super Product> order) {
+        long version = changes.get();
+        SortedProducts cached = sortedCache;
+        if (cached != null && cached.version == version && cached.order.equals(order)) {
+            return cached.products;
+        }
+        // Copie sous verrou partagé, tri hors verrou
+        Product[] products = read(() -> inventory.getProducts().toArray(new Product[0]));
+        Arrays.parallelSort(products, order);
+        sortedCache = new SortedProducts(order, version, products);
+        return products;
+    }
+
+    public void forEachProduct(Consumer<? super Product> action) {
+        long stamp = lock.readLock();
+        try {
+            inventory.forEachProduct(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     public void addProduct(Product product) {
-        inventory.addProduct(product);
+        checkJournal();
+        write(() -> inventory.addProduct(product));
+    }
+
+    // Ajout par lot sous un seul verrou exclusif ; retourne, pour chaque produit,
+    // null s'il a été ajouté ou le motif du refus
+    public List<String> addProducts(List<Product> products) {
+        List<String> failures = new ArrayList<>(products.size());
+        checkJournal();
+        write(() -> {
+            for (Product product : products) {
+                try {
+                    inventory.addProduct(product);
+                    failures.add(null);
+                } catch (IllegalArgumentException e) {
+                    failures.add(e.getMessage());
+                }
+            }
+        });
+        return failures;
+    }
+
+    public int reserveProductIds(int count) {
+        return inventory.reserveProductIds(count);
     }
 
     public void updateProduct(Product product) {
-        inventory.updateProduct(product);
+        checkJournal();
+        long stamp = lock.readLock();
+        boolean replaced;
+        try {
+            replaced = inventory.tryReplaceProduct(product);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if (replaced) {
+            // Le compactage de l'arène hors tas déplace des chaînes : accès exclusif
+            OffHeapProductStore store = inventory.getOffHeapStore();
+            if (store != null && store.isCompactionDue()) {
+                write(inventory::compactOffHeapStoreIfDue);
+            }
+            return;
+        }
+        // Changement de SKU : index structurels à mettre à jour
+        write(() -> inventory.updateProduct(product));
+    }
+
+    // Mouvements de stock : verrou partagé seulement, chaque produit progresse par CAS
+    public int adjustQuantity(int productId, int delta) {
+        checkJournal();
+        return read(() -> inventory.adjustQuantity(productId, delta));
+    }
+
+    public void reserve(int productId, int count) {
+        checkJournal();
+        read(() -> {
+            inventory.reserve(productId, count);
+            return null;
+        });
+    }
+
+    public void release(int productId, int count) {
+        checkJournal();
+        read(() -> {
+            inventory.release(productId, count);
+            return null;
+        });
     }
 
     public void deleteProduct(int productId) {
-        inventory.deleteProduct(productId);
+        checkJournal();
+        write(() -> inventory.deleteProduct(productId));
     }
 
     public Product getProductById(int id) {
-        return inventory.getProductById(id);
+        return optimisticRead(() -> inventory.getProductById(id));
+    }
+
+    public Product getProductBySku(String sku) {
+        return optimisticRead(() -> inventory.getProductBySku(sku));
+    }
+
+    // Recherche plein texte (nom, description, SKU), résultats classés par pertinence
+    public List<Product> search(String query, int limit) {
+        return productsById(searchIndex().search(query, limit));
+    }
+
+    // Complétion des noms et SKU
+    public List<String> autocomplete(String prefix, int limit) {
+        return searchIndex().suggest(prefix, limit);
+    }
+
+    // Produits non expirés dont la date d'expiration est antérieure à date, par date puis ID
+    public List<Product> getExpiringBefore(LocalDate date) {
+        return productsById(expiryIndex().idsExpiringBetween(LocalDate.now(), date));
+    }
+
+    // Produits dont la date d'expiration est passée, par date puis ID
+    public List<Product> getExpired() {
+        return productsById(expiryIndex().idsExpiringBetween(null, LocalDate.now()));
+    }
+
+    // État courant des produits, dans l'ordre des IDs (produits supprimés entre-temps ignorés)
+    private List<Product> productsById(int[] ids) {
+        List<Product> products = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Product product = getProductById(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    // Produits satisfaisant les critères, dans l'ordre demandé, page [offset, offset + limit).
+    // Les candidats viennent de l'index secondaire le plus sélectif ; chaque produit est relu
+    // (état courant) et revérifié au fil du flux.
+    public Stream<Product> query(ProductQuery query) {
+        int[] ids = queryIndex().select(query);
+        Stream<Product> matches = Arrays.stream(ids)
+                .mapToObj(this::getProductById)
+                .filter(product -> product != null && query.matches(product));
+        if (query.getOrder() == null) {
+            return matches.skip(query.getOffset()).limit(query.getLimit());
+        }
+        // À égalité, l'ordre des IDs départage
+        Comparator<? super Product> order = query.getOrder();
+        Comparator<Product> total = (a, b) -> {
+            int byOrder = order.compare(a, b);
+            return byOrder != 0 ? byOrder : Integer.compare(a.getId(), b.getId());
+        };
+        long wanted = (long) query.getOffset() + query.getLimit();
+        if (wanted >= ids.length) {
+            return matches.sorted(total).skip(query.getOffset()).limit(query.getLimit());
+        }
+        // Première page d'un grand résultat : seuls les offset + limit premiers sont gardés
+        PriorityQueue<Product> first = new PriorityQueue<>((int) wanted + 1, total.reversed());
+        matches.forEach(product -> {
+            first.offer(product);
+            if (first.size() > wanted) {
+                first.poll();
+            }
+        });
+        Product[] page = first.toArray(new Product[0]);
+        Arrays.sort(page, total);
+        return Arrays.stream(page).skip(query.getOffset());
+    }
+
+    // Index construits à la première utilisation, sous verrou exclusif pour ne manquer
+    // aucune mutation
+    private ProductSearchIndex searchIndex() {
+        ProductSearchIndex index = searchIndex;
+        if (index == null) {
+            long stamp = lock.writeLock();
+            try {
+                index = searchIndex;
+                if (index == null) {
+                    index = attach(new ProductSearchIndex());
+                    searchIndex = index;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return index;
+    }
+
+    private ProductQueryIndex queryIndex() {
+        ProductQueryIndex index = queryIndex;
+        if (index == null) {
+            long stamp = lock.writeLock();
+            try {
+                index = queryIndex;
+                if (index == null) {
+                    index = attach(new ProductQueryIndex());
+                    queryIndex = index;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return index;
+    }
+
+    ExpiryIndex expiryIndex() {
+        ExpiryIndex index = expiryIndex;
+        if (index == null) {
+            long stamp = lock.writeLock();
+            try {
+                index = expiryIndex;
+                if (index == null) {
+                    index = attach(new ExpiryIndex());
+                    expiryIndex = index;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return index;
+    }
+
+    private <T extends InventoryListener> T attach(T index) {
+        inventory.forEachProduct(index::productAdded);
+        inventory.addListener(index);
+        return index;
     }
 
     // Gestion des catégories
     public List<Category> getAllCategories() {
-        return inventory.getCategories();
+        return read(() -> new ArrayList<>(inventory.getCategories()));
     }
 
     public void addCategory(Category category) {
-        inventory.addCategory(category);
+        checkJournal();
+        write(() -> inventory.addCategory(category));
     }
 
     // Gestion des fournisseurs
     public List<Supplier> getAllSuppliers() {
-        return inventory.getSuppliers();
+        return read(() -> new ArrayList<>(inventory.getSuppliers()));
     }
 
     public void addSupplier(Supplier supplier) {
-        inventory.addSupplier(supplier);
+        checkJournal();
+        write(() -> inventory.addSupplier(supplier));
     }
 
     // Rapports et analyses
     public List<Product> getLowStockProducts() {
-        return inventory.getLowStockProducts();
+        return read(inventory::getLowStockProducts);
+    }
+
+    public int getLowStockCount() {
+        return inventory.getLowStockCount();
     }
 
     public double getTotalInventoryValue() {
         return inventory.getTotalInventoryValue();
     }
 
+    // Agrégations en colonnes (activées à la demande pour les gros catalogues)
+    public void enableColumnarStore() {
+        write(inventory::enableColumnarStore);
+    }
+
+    // Produits hors du tas (très gros catalogues) ; les index attachés restent valides
+    public void enableOffHeapStore() {
+        write(inventory::enableOffHeapStore);
+    }
+
+    // Valeur du stock par ID de catégorie / de fournisseur : boucles sur les colonnes si elles
+    // sont activées, parcours des produits sinon
+    public Map<Integer, Double> getValueByCategory() {
+        return read(() -> {
+            ProductColumns columns = inventory.getColumns();
+            if (columns != null) {
+                return columns.valueByCategory();
+            }
+            Map<Integer, Double> values = new LinkedHashMap<>();
+            inventory.forEachProduct(p -> {
+                if (p.getCategory() != null) {
+                    values.merge(p.getCategory().getId(), p.getTotalValue(), Double::sum);
+                }
+            });
+            return values;
+        });
+    }
+
+    public Map<Integer, Double> getValueBySupplier() {
+        return read(() -> {
+            ProductColumns columns = inventory.getColumns();
+            if (columns != null) {
+                return columns.valueBySupplier();
+            }
+            Map<Integer, Double> values = new LinkedHashMap<>();
+            inventory.forEachProduct(p -> {
+                if (p.getSupplier() != null) {
+                    values.merge(p.getSupplier().getId(), p.getTotalValue(), Double::sum);
+                }
+            });
+            return values;
+        });
+    }
+
+    // Totaux par ID de catégorie / de fournisseur, tenus à jour à chaque mutation
+    public Map<Integer, StockRollup> getCategoryRollups() {
+        return rollups().getCategoryRollups();
+    }
+
+    public Map<Integer, StockRollup> getSupplierRollups() {
+        return rollups().getSupplierRollups();
+    }
+
+    private InventoryRollups rollups() {
+        InventoryRollups index = rollups;
+        if (index == null) {
+            long stamp = lock.writeLock();
+            try {
+                index = rollups;
+                if (index == null) {
+                    index = attach(new InventoryRollups());
+                    rollups = index;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return index;
+    }
+
     public int getTotalProductsCount() {
-        return inventory.getProducts().size();
+        return optimisticRead(inventory::getProductCount);
+    }
+
+    // Une mutation est refusée avant d'être appliquée si le journal n'a pas pu écrire la précédente
+    private void checkJournal() {
+        InventoryJournal current = journal;
+        if (current != null) {
+            current.checkWritable();
+        }
+    }
+
+    // Méthodes utilitaires de verrouillage
+    private <T> T optimisticRead(java.util.function.Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Lecture incohérente pendant une écriture : on relit sous verrou
+            }
+        }
+        return read(reader);
+    }
+
+    private <T> T read(java.util.function.Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void write(Runnable writer) {
+        long stamp = lock.writeLock();
+        try {
+            writer.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Compteur de mutations : invalide l'ordre de tri mis en cache
+    private static class ChangeCounter implements InventoryListener {
+        private final AtomicLong count = new AtomicLong();
+
+        long get() { return count.get(); }
+
+        @Override public void productAdded(Product product) { count.incrementAndGet(); }
+        @Override public void productUpdated(Product previous, Product current) { count.incrementAndGet(); }
+        @Override public void productRemoved(Product product) { count.incrementAndGet(); }
+        @Override public void stockMoved(Product product, int quantityDelta, int reservedDelta) { count.incrementAndGet(); }
+    }
+
+    private static class SortedProducts {
+        final Comparator<? super Product> order;
+        final long version;
+        final Product[] products;
+
+        SortedProducts(Comparator<? super Product> order, long version, Product[] products) {
+            this.order = order;
+            this.version = version;
+            this.products = products;
+        }
     }
 }
@@ -0,0 +1,511 @@
+package Services;
+
+import Models.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+// Format binaire des sauvegardes d'inventaire (fichiers .inv).
+//
+// En-tête : magic "INVS", version (short).
+// Puis une suite de blocs : type (1 octet), longueur (int), contenu, CRC32 du contenu (int).
+// Les entiers du contenu sont encodés en varint (zigzag pour les valeurs signées) et les
+// noms répétitifs (catégories, fournisseurs, emplacements) passent par une table de chaînes.
+public class InventorySnapshotFormat {
+
+    static final int MAGIC = 0x494E5653; // "INVS"
+    static final short VERSION = 1;
+
+    static final byte BLOCK_STRINGS = 1;
+    static final byte BLOCK_SEQUENCES = 2;
+    static final byte BLOCK_CATEGORIES = 3;
+    static final byte BLOCK_SUPPLIERS = 4;
+    static final byte BLOCK_PRODUCTS = 5;
+    static final byte BLOCK_JOURNAL = 6;
+    static final byte BLOCK_END = 127;
+
+    static final int PRODUCTS_PER_BLOCK = 4096;
+    static final int HEADER_SIZE = 6;
+    static final int BLOCK_HEADER_SIZE = 5;
+
+    // Indique si le fichier commence par l'en-tête du format binaire
+    public static boolean isSnapshotFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // lecture des 4 premiers octets
+            }
+            return !header.hasRemaining() && header.getInt(0) == MAGIC;
+        }
+    }
+
+    // ========== Écriture ==========
+
+    public void write(Inventory inventory, Path path) throws IOException {
+        write(inventory, path, -1);
+    }
+
+    // journalGeneration : premier segment de journal à rejouer après ce fichier (-1 = aucun)
+    public void write(Inventory inventory, Path path, long journalGeneration) throws IOException {
+        StringTable strings = new StringTable();
+        for (Category category : inventory.getCategories()) {
+            strings.add(category.getName());
+            strings.add(category.getDescription());
+        }
+        for (Supplier supplier : inventory.getSuppliers()) {
+            strings.add(supplier.getName());
+            strings.add(supplier.getContactPerson());
+            strings.add(supplier.getPhone());
+            strings.add(supplier.getEmail());
+            strings.add(supplier.getAddress());
+        }
+        inventory.forEachProduct(product -> strings.add(product.getLocation()));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).flip();
+            writeFully(channel, header);
+
+            BlockWriter block = new BlockWriter();
+
+            block.putVarInt(strings.values.size());
+            for (String value : strings.values) {
+                block.putString(value);
+            }
+            block.flush(channel, BLOCK_STRINGS);
+
+            block.putVarInt(inventory.getProductIdSequence().getLast());
+            block.putVarInt(inventory.getCategoryIdSequence().getLast());
+            block.putVarInt(inventory.getSupplierIdSequence().getLast());
+            block.flush(channel, BLOCK_SEQUENCES);
+
+            block.putVarInt(inventory.getCategories().size());
+            for (Category category : inventory.getCategories()) {
+                block.putVarInt(category.getId());
+                block.putVarInt(strings.ref(category.getName()));
+                block.putVarInt(strings.ref(category.getDescription()));
+            }
+            block.flush(channel, BLOCK_CATEGORIES);
+
+            block.putVarInt(inventory.getSuppliers().size());
+            for (Supplier supplier : inventory.getSuppliers()) {
+                block.putVarInt(supplier.getId());
+                block.putVarInt(strings.ref(supplier.getName()));
+                block.putVarInt(strings.ref(supplier.getContactPerson()));
+                block.putVarInt(strings.ref(supplier.getPhone()));
+                block.putVarInt(strings.ref(supplier.getEmail()));
+                block.putVarInt(strings.ref(supplier.getAddress()));
+            }
+            block.flush(channel, BLOCK_SUPPLIERS);
+
+            List<Product> products = inventory.getProducts();
+            for (int from = 0; from < products.size(); from += PRODUCTS_PER_BLOCK) {
+                int to = Math.min(from + PRODUCTS_PER_BLOCK, products.size());
+                block.putVarInt(to - from);
+                for (int i = from; i < to; i++) {
+                    writeProduct(block, products.get(i), strings);
+                }
+                block.flush(channel, BLOCK_PRODUCTS);
+            }
+
+            if (journalGeneration >= 0) {
+                block.putVarLong(journalGeneration);
+                block.flush(channel, BLOCK_JOURNAL);
+            }
+
+            block.flush(channel, BLOCK_END);
+        }
+    }
+
+    // Sans table de chaînes (journal), l'emplacement est écrit en clair
+    static void writeProduct(BlockWriter block, Product product, StringTable strings) {
+        block.putVarInt(product.getId());
+        block.putString(product.getName());
+        block.putString(product.getDescription());
+        block.putPrice(product.getPrice());
+        block.putSignedVarInt(product.getQuantity());
+        block.putSignedVarInt(product.getMinStockLevel());
+        block.putSignedVarInt(product.getReservedQuantity());
+        block.putVarInt(product.getCategory() != null ? product.getCategory().getId() : 0);
+        block.putVarInt(product.getSupplier() != null ? product.getSupplier().getId() : 0);
+        block.putString(product.getSku());
+        block.putDate(product.getExpirationDate());
+        if (strings != null) {
+            block.putVarInt(strings.ref(product.getLocation()));
+        } else {
+            block.putString(product.getLocation());
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // ========== Lecture ==========
+
+    public Inventory read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Fichier d'inventaire invalide : " + path);
+            }
+            short version = header.getShort();
+            if (version > VERSION) {
+                throw new IOException("Version de fichier non supportée : " + version);
+            }
+
+            Inventory inventory = Inventory.createEmpty();
+            List<String> strings = new ArrayList<>();
+            Map<Integer, Category> categoriesById = new HashMap<>();
+            Map<Integer, Supplier> suppliersById = new HashMap<>();
+            int[] sequences = null;
+
+            while (true) {
+                ByteBuffer blockHeader = readFully(channel, BLOCK_HEADER_SIZE);
+                byte type = blockHeader.get();
+                ByteBuffer payload = readBlock(channel, type, blockHeader.getInt());
+
+                // CRC valide mais contenu incohérent (ID ou SKU en double, référence hors table)
+                try {
+                    switch (type) {
+                        case BLOCK_STRINGS -> readStrings(payload, strings);
+                        case BLOCK_SEQUENCES -> sequences = readSequences(payload);
+                        case BLOCK_CATEGORIES -> readCategories(payload, strings, inventory, categoriesById);
+                        case BLOCK_SUPPLIERS -> readSuppliers(payload, strings, inventory, suppliersById);
+                        case BLOCK_PRODUCTS -> {
+                            int count = getVarInt(payload);
+                            for (int i = 0; i < count; i++) {
+                                inventory.addProduct(readProduct(payload, strings, categoriesById::get, suppliersById::get));
+                            }
+                        }
+                        case BLOCK_END -> {
+                            restoreSequences(inventory, sequences);
+                            return inventory;
+                        }
+                        default -> {
+                            // bloc inconnu (version future) : ignoré
+                        }
+                    }
+                } catch (IllegalArgumentException | IllegalStateException | BufferUnderflowException
+                         | IndexOutOfBoundsException e) {
+                    throw new IOException("Bloc corrompu (type " + type + ") : " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    static void readStrings(ByteBuffer in, List<String> strings) {
+        int count = getVarInt(in);
+        for (int i = 0; i < count; i++) {
+            strings.add(getString(in));
+        }
+    }
+
+    static int[] readSequences(ByteBuffer in) {
+        return new int[]{getVarInt(in), getVarInt(in), getVarInt(in)};
+    }
+
+    static void restoreSequences(Inventory inventory, int[] sequences) {
+        if (sequences != null) {
+            inventory.getProductIdSequence().observe(sequences[0]);
+            inventory.getCategoryIdSequence().observe(sequences[1]);
+            inventory.getSupplierIdSequence().observe(sequences[2]);
+        }
+    }
+
+    static void readCategories(ByteBuffer in, List<String> strings, Inventory inventory,
+                               Map<Integer, Category> categoriesById) {
+        int count = getVarInt(in);
+        for (int i = 0; i < count; i++) {
+            Category category = new Category(getVarInt(in),
+                    deref(strings, getVarInt(in)), deref(strings, getVarInt(in)));
+            inventory.addCategory(category);
+            categoriesById.put(category.getId(), category);
+        }
+    }
+
+    static void readSuppliers(ByteBuffer in, List<String> strings, Inventory inventory,
+                              Map<Integer, Supplier> suppliersById) {
+        int count = getVarInt(in);
+        for (int i = 0; i < count; i++) {
+            Supplier supplier = new Supplier(getVarInt(in),
+                    deref(strings, getVarInt(in)), deref(strings, getVarInt(in)),
+                    deref(strings, getVarInt(in)), deref(strings, getVarInt(in)),
+                    deref(strings, getVarInt(in)));
+            inventory.addSupplier(supplier);
+            suppliersById.put(supplier.getId(), supplier);
+        }
+    }
+
+    static Product readProduct(ByteBuffer in, List<String> strings,
+                               IntFunction<Category> categoriesById, IntFunction<Supplier> suppliersById) {
+        Product product = new Product();
+        product.setId(getVarInt(in));
+        product.setName(getString(in));
+        product.setDescription(getString(in));
+        product.setPrice(getPrice(in));
+        product.setQuantity(getSignedVarInt(in));
+        product.setMinStockLevel(getSignedVarInt(in));
+        product.setReservedQuantity(getSignedVarInt(in));
+        product.setCategory(categoriesById.apply(getVarInt(in)));
+        product.setSupplier(suppliersById.apply(getVarInt(in)));
+        product.setSku(getString(in));
+        product.setExpirationDate(getDate(in));
+        product.setLocation(strings != null ? deref(strings, getVarInt(in)) : getString(in));
+        return product;
+    }
+
+    // Parcourt les en-têtes de blocs sans décoder les produits
+    public static long readJournalGeneration(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = HEADER_SIZE;
+            while (position + BLOCK_HEADER_SIZE <= channel.size()) {
+                channel.position(position);
+                ByteBuffer blockHeader = readFully(channel, BLOCK_HEADER_SIZE);
+                byte type = blockHeader.get();
+                int length = checkBlockLength(channel, type, blockHeader.getInt());
+                if (type == BLOCK_JOURNAL) {
+                    ByteBuffer payload = readBlock(channel, type, length);
+                    try {
+                        return getVarLong(payload);
+                    } catch (BufferUnderflowException e) {
+                        throw new IOException("Bloc corrompu (type " + type + ") : génération tronquée.", e);
+                    }
+                }
+                if (type == BLOCK_END) {
+                    break;
+                }
+                position += BLOCK_HEADER_SIZE + length + 4;
+            }
+            return -1;
+        }
+    }
+
+    // Contenu du bloc dont l'en-tête vient d'être lu, CRC vérifié (limite = fin du contenu)
+    static ByteBuffer readBlock(FileChannel channel, byte type, int length) throws IOException {
+        ByteBuffer payload = readFully(channel, checkBlockLength(channel, type, length) + 4);
+        int expectedCrc = payload.getInt(length);
+        payload.limit(length);
+        checkCrc(payload, expectedCrc, type);
+        return payload;
+    }
+
+    // Longueur vérifiée avant toute allocation : un en-tête corrompu ne doit ni réserver un
+    // tampon démesuré (ou négatif) ni faire lire au-delà de la fin du fichier
+    static int checkBlockLength(FileChannel channel, byte type, int length) throws IOException {
+        long remaining = channel.size() - channel.position();
+        if (length < 0 || length + 4L > remaining) {
+            throw new IOException("Bloc corrompu (type " + type + ") : longueur " + length
+                    + " invalide, " + remaining + " octet(s) restant(s).");
+        }
+        return length;
+    }
+
+    static ByteBuffer readFully(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Fichier d'inventaire tronqué.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    static void checkCrc(ByteBuffer payload, int expectedCrc, byte type) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Bloc corrompu (type " + type + ") : CRC invalide.");
+        }
+    }
+
+    static String deref(List<String> strings, int ref) {
+        return ref == 0 ? null : strings.get(ref - 1);
+    }
+
+    // ========== Encodage des valeurs ==========
+
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static int getSignedVarInt(ByteBuffer in) {
+        int raw = getVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    static void skipString(ByteBuffer in) {
+        int length = getVarInt(in);
+        if (length > 1) {
+            in.position(in.position() + length - 1);
+        }
+    }
+
+    // Longueur + 1 (0 = null), puis octets UTF-8
+    static String getString(ByteBuffer in) {
+        int length = getVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Prix au centime près en varint (bit 0 = 0), sinon les 64 bits du double (bit 0 = 1)
+    static double getPrice(ByteBuffer in) {
+        long raw = getVarLong(in);
+        if ((raw & 1) == 0) {
+            long cents = raw >>> 1;
+            return cents / 100.0;
+        }
+        return Double.longBitsToDouble(in.getLong());
+    }
+
+    // Jour epoch + 1 en zigzag (0 = pas de date)
+    static LocalDate getDate(ByteBuffer in) {
+        long raw = getVarLong(in);
+        if (raw == 0) {
+            return null;
+        }
+        long zigzag = raw - 1;
+        return LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    // Tampon de bloc extensible, vidé dans le canal avec son en-tête et son CRC
+    static class BlockWriter {
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final CRC32 crc = new CRC32();
+
+        void putVarInt(int value) {
+            ensureRemaining(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putVarLong(long value) {
+            ensureRemaining(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putSignedVarInt(int value) {
+            putVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarInt(bytes.length + 1);
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putPrice(double price) {
+            long cents = Math.round(price * 100);
+            if (cents >= 0 && cents / 100.0 == price) {
+                putVarLong(cents << 1);
+            } else {
+                putVarLong(1);
+                ensureRemaining(8);
+                buffer.putLong(Double.doubleToRawLongBits(price));
+            }
+        }
+
+        void putDate(LocalDate date) {
+            if (date == null) {
+                putVarLong(0);
+                return;
+            }
+            long epochDay = date.toEpochDay();
+            putVarLong(((epochDay << 1) ^ (epochDay >> 63)) + 1);
+        }
+
+        void flush(FileChannel channel, byte type) throws IOException {
+            buffer.flip();
+            crc.reset();
+            crc.update(buffer.duplicate());
+            ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE).put(type).putInt(buffer.remaining()).flip();
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip();
+            ByteBuffer[] parts = {blockHeader, buffer, trailer};
+            try {
+                while (trailer.hasRemaining()) {
+                    channel.write(parts);
+                }
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        private void ensureRemaining(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer larger = ByteBuffer.allocate(capacity);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    // Table de chaînes dédupliquées ; la référence 0 représente null
+    static class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        void add(String value) {
+            if (value != null && !refs.containsKey(value)) {
+                values.add(value);
+                refs.put(value, values.size());
+            }
+        }
+
+        int ref(String value) {
+            return value == null ? 0 : refs.get(value);
+        }
+    }
+}
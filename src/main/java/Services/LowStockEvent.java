@@ -0,0 +1,36 @@
+package Services;
+
+import Models.Product;
+
+// Bascule d'un produit sous son seuil de stock (lowStock) ou retour au-dessus,
+// avec l'état du produit au moment de la bascule
+public class LowStockEvent {
+    private final int productId;
+    private final String sku;
+    private final String name;
+    private final int quantity;
+    private final int minStockLevel;
+    private final boolean lowStock;
+
+    LowStockEvent(Product product, boolean lowStock) {
+        this.productId = product.getId();
+        this.sku = product.getSku();
+        this.name = product.getName();
+        this.quantity = product.getQuantity();
+        this.minStockLevel = product.getMinStockLevel();
+        this.lowStock = lowStock;
+    }
+
+    public int getProductId() { return productId; }
+    public String getSku() { return sku; }
+    public String getName() { return name; }
+    public int getQuantity() { return quantity; }
+    public int getMinStockLevel() { return minStockLevel; }
+    public boolean isLowStock() { return lowStock; }
+
+    @Override
+    public String toString() {
+        return (lowStock ? "Stock faible : " : "Stock rétabli : ") + name + " (" + sku + ") "
+                + quantity + "/" + minStockLevel;
+    }
+}
@@ -0,0 +1,139 @@
+package Services;
+
+import Models.InventoryListener;
+import Models.Product;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Diffusion asynchrone des bascules de stock faible (voir InventoryListener.lowStockChanged).
+// L'événement est capturé dans la section critique de la mutation et déposé sans attente ;
+// un thread de diffusion le remet ensuite aux abonnés via un SubmissionPublisher.
+// Chaque bascule est remise une fois, dans l'ordre, pour chaque produit. Les bascules en
+// attente sont regroupées par produit (une entrée de file par produit).
+// Contre-pression : chaque abonné a un tampon borné et réclame les événements à son rythme
+// (Flow.Subscription.request). Tant qu'un tampon est plein, la diffusion attend ; les
+// mutations, elles, n'attendent jamais.
+public class LowStockEventPublisher implements InventoryListener, Flow.Publisher<LowStockEvent> {
+
+    private static final int BUFFER_CAPACITY = 256;
+    private static final long CLOSE_TIMEOUT_MS = 1000;
+    private static final long POLL_MS = 100;
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Produits ayant des bascules en attente, dans l'ordre de la première bascule
+    private final LinkedBlockingQueue<Integer> pendingIds = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Integer, ArrayDeque<LowStockEvent>> pendingById = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ExecutorService executor;
+    private final SubmissionPublisher<LowStockEvent> publisher;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+    private volatile long closeDeadline;
+
+    public LowStockEventPublisher() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "inventory-low-stock-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher = new SubmissionPublisher<>(executor, BUFFER_CAPACITY);
+        this.dispatcher = new Thread(this::dispatch, "inventory-low-stock-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LowStockEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void lowStockChanged(Product product, boolean lowStock) {
+        LowStockEvent event = new LowStockEvent(product, lowStock);
+        pendingById.compute(event.getProductId(), (id, events) -> {
+            if (events == null) {
+                events = new ArrayDeque<>(2);
+                pendingIds.offer(id);
+            }
+            events.add(event);
+            return events;
+        });
+    }
+
+    // Produits dont une bascule n'a pas encore été remise aux abonnés
+    public int getBacklog() {
+        return pendingIds.size();
+    }
+
+    // Événements abandonnés à la fermeture, un abonné restant saturé au-delà de CLOSE_TIMEOUT_MS
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Termine les abonnements après remise des événements déjà capturés ; un abonné saturé
+    // ne retarde pas la fermeture de plus de CLOSE_TIMEOUT_MS
+    public void close() {
+        closeDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MS);
+        closed = true;
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publisher.close();
+        executor.shutdown();
+    }
+
+    private void dispatch() {
+        try {
+            while (true) {
+                Integer id = pendingIds.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (id == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                // Retiré d'un bloc : une bascule ultérieure crée une nouvelle entrée
+                for (LowStockEvent event : pendingById.remove(id)) {
+                    if (awaitCapacity()) {
+                        publisher.offer(event, this::drop);
+                    } else {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Attend une place dans le tampon de chaque abonné (seule la diffusion y dépose) ;
+    // false si la fermeture a dépassé son délai
+    private boolean awaitCapacity() {
+        while (publisher.estimateMaximumLag() >= publisher.getMaxBufferCapacity()) {
+            if (closed && System.nanoTime() - closeDeadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        return true;
+    }
+
+    // Ne se produit pas : awaitCapacity garantit une place à chaque abonné
+    private boolean drop(Flow.Subscriber<? super LowStockEvent> subscriber, LowStockEvent event) {
+        dropped.incrementAndGet();
+        return false;
+    }
+}
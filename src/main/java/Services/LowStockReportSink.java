@@ -0,0 +1,55 @@
+package Services;
+
+import Models.Product;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Rapport texte des produits en stock faible
+public class LowStockReportSink implements ReportSink {
+
+    private final String filePath;
+    private PrintWriter writer;
+
+    public LowStockReportSink(String filePath) {
+        this.filePath = filePath;
+    }
+
+    @Override
+    public void begin() throws Exception {
+        writer = new PrintWriter(new BufferedWriter(new FileWriter(filePath)));
+        writer.println("=== RAPPORT STOCK FAIBLE ===\n");
+        writer.println("Produits avec stock faible:\n");
+        writer.println("ID\tNom\tQuantité\tStock Minimum");
+    }
+
+    @Override
+    public void accept(Product product) {
+        if (product.isLowStock()) {
+            writer.println(String.format("%d\t%s\t%d\t\t%d",
+                    product.getId(),
+                    product.getName(),
+                    product.getQuantity(),
+                    product.getMinStockLevel()));
+        }
+    }
+
+    @Override
+    public void end(ReportTotals totals) {
+        writer.println("\n=== TOTAL ===\n");
+        writer.println("Nombre de produits en stock faible: " + totals.getLowStockCount());
+        writer.println("Valeur totale de l'inventaire: " + totals.getTotalValue() + " €");
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (writer != null) {
+            writer.close();
+            if (writer.checkError()) {
+                throw new IOException("Écriture du rapport impossible : " + filePath);
+            }
+        }
+    }
+}
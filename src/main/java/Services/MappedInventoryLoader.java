@@ -0,0 +1,131 @@
+package Services;
+
+import Models.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static Services.InventorySnapshotFormat.*;
+
+// Chargement paresseux d'un fichier au format InventorySnapshotFormat.
+// Le fichier est mappé en mémoire ; on relève la position de chaque enregistrement puis
+// les seuls champs nécessaires aux index (ID, SKU, valeur, stock faible). Les Product ne
+// sont décodés qu'au premier accès, via LazyProductList.
+public class MappedInventoryLoader {
+
+    public Inventory load(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier trop volumineux pour un mappage unique : " + path);
+            }
+            // Le mappage reste valide après la fermeture du canal
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        ByteBuffer in = mapped.duplicate();
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("Fichier d'inventaire invalide : " + path);
+        }
+        short version = in.getShort();
+        if (version > VERSION) {
+            throw new IOException("Version de fichier non supportée : " + version);
+        }
+
+        Inventory inventory = Inventory.createEmpty();
+        List<String> strings = new ArrayList<>();
+        Map<Integer, Category> categoriesById = new HashMap<>();
+        Map<Integer, Supplier> suppliersById = new HashMap<>();
+        int[] sequences = null;
+        int[] offsets = new int[1024];
+        int count = 0;
+
+        // Premier passage : blocs de métadonnées et position des enregistrements
+        boolean ended = false;
+        while (!ended) {
+            // Longueur lue dans le fichier : vérifiée avant de découper le bloc
+            if (in.remaining() < BLOCK_HEADER_SIZE) {
+                throw new IOException("Fichier d'inventaire tronqué : " + path);
+            }
+            byte type = in.get();
+            int length = in.getInt();
+            if (length < 0 || in.remaining() - 4 < length) {
+                throw new IOException("Bloc de longueur invalide (" + length + ") à la position "
+                        + (in.position() - BLOCK_HEADER_SIZE) + " : " + path);
+            }
+            int start = in.position();
+            ByteBuffer payload = mapped.duplicate().position(start).limit(start + length);
+            checkCrc(payload, in.getInt(start + length), type);
+
+            switch (type) {
+                case BLOCK_STRINGS -> readStrings(payload, strings);
+                case BLOCK_SEQUENCES -> sequences = readSequences(payload);
+                case BLOCK_CATEGORIES -> readCategories(payload, strings, inventory, categoriesById);
+                case BLOCK_SUPPLIERS -> readSuppliers(payload, strings, inventory, suppliersById);
+                case BLOCK_PRODUCTS -> {
+                    int records = getVarInt(payload);
+                    for (int i = 0; i < records; i++) {
+                        if (count == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, count * 2);
+                        }
+                        offsets[count++] = payload.position();
+                        skipProduct(payload);
+                    }
+                }
+                case BLOCK_END -> ended = true;
+                default -> {
+                    // bloc inconnu (version future) : ignoré
+                }
+            }
+            in.position(start + length + 4);
+        }
+
+        int[] recordOffsets = offsets;
+        LazyProductList products = new LazyProductList(count, slot -> readProduct(
+                mapped.duplicate().position(recordOffsets[slot]), strings, categoriesById::get, suppliersById::get));
+        inventory.attachLazyProducts(products);
+
+        // Second passage : index de l'inventaire, sans matérialiser les produits
+        ByteBuffer record = mapped.duplicate();
+        for (int slot = 0; slot < count; slot++) {
+            record.position(offsets[slot]);
+            int id = getVarInt(record);
+            skipString(record);
+            skipString(record);
+            double price = getPrice(record);
+            int quantity = getSignedVarInt(record);
+            int minStockLevel = getSignedVarInt(record);
+            getSignedVarInt(record);
+            getVarInt(record);
+            getVarInt(record);
+            String sku = getString(record);
+            inventory.indexLazyProduct(slot, id, sku, price * quantity, quantity <= minStockLevel);
+        }
+        restoreSequences(inventory, sequences);
+        return inventory;
+    }
+
+    private static void skipProduct(ByteBuffer in) {
+        getVarInt(in);
+        skipString(in);
+        skipString(in);
+        getPrice(in);
+        getSignedVarInt(in);
+        getSignedVarInt(in);
+        getSignedVarInt(in);
+        getVarInt(in);
+        getVarInt(in);
+        skipString(in);
+        getVarLong(in);
+        getVarInt(in);
+    }
+}
@@ -0,0 +1,122 @@
+package Services;
+
+import Models.Product;
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Rapport PDF rendu au fil de l'eau (setComplete(false)) : les lignes déjà mises en page
+// sont libérées à chaque document.add, la mémoire ne dépend pas du nombre de produits.
+public class PdfReportSink implements ReportSink {
+
+    // Nombre de lignes accumulées avant de vider le tableau dans le document
+    private static final int FLUSH_ROWS = 500;
+
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
+    private static final Font DATE_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.ITALIC);
+    private static final Font CELL_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.NORMAL);
+    private static final String[] HEADERS = {"ID", "Nom", "Catégorie", "Quantité", "Prix", "Valeur"};
+
+    private final String filePath;
+    private final DecimalFormat amount = new DecimalFormat("0.00 €");
+    private Document document;
+    private PdfPTable table;
+    private int rows;
+
+    public PdfReportSink(String filePath) {
+        this.filePath = filePath;
+        amount.setRoundingMode(RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public void begin() throws Exception {
+        document = new Document();
+        PdfWriter.getInstance(document, new BufferedOutputStream(new FileOutputStream(filePath)));
+        document.open();
+
+        // Titre
+        Paragraph title = new Paragraph("Rapport d'Inventaire", TITLE_FONT);
+        title.setAlignment(Element.ALIGN_CENTER);
+        title.setSpacingAfter(20);
+        document.add(title);
+
+        // Date de génération
+        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
+        Paragraph dateParagraph = new Paragraph("Généré le: " + date, DATE_FONT);
+        dateParagraph.setAlignment(Element.ALIGN_RIGHT);
+        dateParagraph.setSpacingAfter(20);
+        document.add(dateParagraph);
+
+        // Tableau des produits, en-tête répété sur chaque page
+        table = new PdfPTable(HEADERS.length);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+
+        PdfPCell headerCell = new PdfPCell();
+        headerCell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+        headerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        for (String header : HEADERS) {
+            headerCell.setPhrase(new Phrase(header, CELL_FONT));
+            table.addCell(headerCell);
+        }
+    }
+
+    // Chaque cellule est copiée de la cellule par défaut du tableau
+    @Override
+    public void accept(Product product) throws Exception {
+        addCell(Integer.toString(product.getId()));
+        addCell(product.getName());
+        addCell(product.getCategory() != null ? product.getCategory().getName() : "N/A");
+        addCell(Integer.toString(product.getQuantity()));
+        addCell(amount.format(product.getPrice()));
+        addCell(amount.format(product.getTotalValue()));
+        if (++rows % FLUSH_ROWS == 0) {
+            document.add(table);
+        }
+    }
+
+    @Override
+    public void end(ReportTotals totals) throws Exception {
+        table.setComplete(true);
+        document.add(table);
+
+        // Totaux
+        document.add(new Paragraph("\n\n"));
+
+        PdfPTable totalsTable = new PdfPTable(2);
+        totalsTable.setWidthPercentage(50);
+        totalsTable.setHorizontalAlignment(Element.ALIGN_RIGHT);
+
+        totalsTable.addCell("Total produits:");
+        totalsTable.addCell(String.valueOf(totals.getProductCount()));
+
+        totalsTable.addCell("Valeur totale:");
+        totalsTable.addCell(amount.format(totals.getTotalValue()));
+
+        totalsTable.addCell("Produits stock faible:");
+        totalsTable.addCell(String.valueOf(totals.getLowStockCount()));
+
+        document.add(totalsTable);
+    }
+
+    @Override
+    public void close() {
+        if (document != null && document.isOpen()) {
+            document.close();
+        }
+    }
+
+    // Police partagée : Phrase(String) créerait une police par cellule
+    private void addCell(String text) {
+        table.addCell(new Phrase(text, CELL_FONT));
+    }
+}
@@ -0,0 +1,98 @@
+package Services;
+
+import Models.Product;
+
+import java.util.Comparator;
+
+// Critères de recherche de produits pour InventoryService.query ; les critères non
+// renseignés ne filtrent pas. Exemple :
+//   new ProductQuery().category(2).supplier(5).priceBetween(10, 50)
+//       .sortBy(Comparator.comparingDouble(Product::getTotalValue).reversed()).page(0, 100)
+public class ProductQuery {
+    private Integer categoryId;
+    private Integer supplierId;
+    private String location;
+    private double minPrice = Double.NEGATIVE_INFINITY;
+    private double maxPrice = Double.POSITIVE_INFINITY;
+    private int minQuantity = Integer.MIN_VALUE;
+    private int maxQuantity = Integer.MAX_VALUE;
+    private Comparator<? super Product> order;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+
+    public ProductQuery category(int categoryId) {
+        this.categoryId = categoryId;
+        return this;
+    }
+
+    public ProductQuery supplier(int supplierId) {
+        this.supplierId = supplierId;
+        return this;
+    }
+
+    public ProductQuery location(String location) {
+        this.location = location;
+        return this;
+    }
+
+    // Bornes incluses
+    public ProductQuery priceBetween(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new IllegalArgumentException("Intervalle de prix invalide : [" + min + ", " + max + "]");
+        }
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    public ProductQuery quantityBetween(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Intervalle de quantité invalide : [" + min + ", " + max + "]");
+        }
+        this.minQuantity = min;
+        this.maxQuantity = max;
+        return this;
+    }
+
+    // null : ordre croissant des IDs
+    public ProductQuery sortBy(Comparator<? super Product> order) {
+        this.order = order;
+        return this;
+    }
+
+    public ProductQuery page(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset et limit doivent être positifs.");
+        }
+        this.offset = offset;
+        this.limit = limit;
+        return this;
+    }
+
+    public boolean matches(Product product) {
+        return (categoryId == null || (product.getCategory() != null && product.getCategory().getId() == categoryId))
+                && (supplierId == null || (product.getSupplier() != null && product.getSupplier().getId() == supplierId))
+                && (location == null || location.equals(product.getLocation()))
+                && product.getPrice() >= minPrice && product.getPrice() <= maxPrice
+                && product.getQuantity() >= minQuantity && product.getQuantity() <= maxQuantity;
+    }
+
+    boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+
+    boolean hasQuantityRange() {
+        return minQuantity != Integer.MIN_VALUE || maxQuantity != Integer.MAX_VALUE;
+    }
+
+    Integer getCategoryId() { return categoryId; }
+    Integer getSupplierId() { return supplierId; }
+    String getLocation() { return location; }
+    double getMinPrice() { return minPrice; }
+    double getMaxPrice() { return maxPrice; }
+    int getMinQuantity() { return minQuantity; }
+    int getMaxQuantity() { return maxQuantity; }
+    Comparator<? super Product> getOrder() { return order; }
+    int getOffset() { return offset; }
+    int getLimit() { return limit; }
+}
@@ -0,0 +1,586 @@
+package Services;
+
+import Models.IntIntMap;
+import Models.InventoryListener;
+import Models.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Index secondaires pour ProductQuery : catégorie, fournisseur et emplacement (égalité),
+// prix et quantité (intervalles, dictionnaires triés). Chaque valeur indexée pointe vers
+// l'ensemble trié des IDs concernés.
+// Une requête part du critère le plus sélectif et vérifie les autres sur les valeurs
+// indexées de chaque candidat, sans relire les produits.
+// Tenu à jour par les événements d'InventoryListener, mouvements de stock compris.
+// Verrouillage : lock protège les emplacements et les index autres que la quantité (exclusif
+// pour ajout, modification et suppression) ; l'index des quantités est réparti en tranches par
+// ID, chacune sous son propre verrou, pour que les mouvements de stock, les plus fréquents,
+// ne prennent que le verrou partagé et celui de leur tranche.
+public class ProductQueryIndex implements InventoryListener {
+
+    private static final int NONE = -1;
+    private static final IdSet EMPTY = new IdSet();
+    private static final int QUANTITY_STRIPES = 16;
+    // Taille maximale d'un tableau trié d'IDs (ensemble, puis bloc) : borne le décalage
+    private static final int ARRAY_LIMIT = 4096;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, IdSet> byCategory = new HashMap<>();
+    private final Map<Integer, IdSet> bySupplier = new HashMap<>();
+    private final Map<String, IdSet> byLocation = new HashMap<>();
+    // Prix en centimes
+    private final TreeMap<Long, IdSet> byPrice = new TreeMap<>();
+    private final QuantityStripe[] quantityStripes = new QuantityStripe[QUANTITY_STRIPES];
+    // Valeurs indexées, en emplacements contigus (suppression par échange avec le dernier)
+    private final IntIntMap slotById = new IntIntMap(1024);
+    private Entry[] entries = new Entry[1024];
+    private int entryCount;
+    // Tous les IDs indexés, triés (requête sans critère)
+    private final IdSet allIds = new IdSet();
+
+    public ProductQueryIndex() {
+        for (int i = 0; i < QUANTITY_STRIPES; i++) {
+            quantityStripes[i] = new QuantityStripe();
+        }
+    }
+
+    // ========== Synchronisation avec l'inventaire ==========
+
+    @Override
+    public void productAdded(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Les anciennes valeurs sont celles conservées dans l'index ; seules les clés qui ont
+    // changé sont déplacées.
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        lock.writeLock().lock();
+        try {
+            int id = current.getId();
+            int slot = slotById.get(id);
+            if (slot == IntIntMap.NO_VALUE) {
+                add(current);
+                return;
+            }
+            Entry old = entries[slot];
+            Entry entry = entryOf(current);
+            entries[slot] = entry;
+            if (old.categoryId != entry.categoryId) {
+                move(byCategory, old.categoryId, entry.categoryId, id);
+            }
+            if (old.supplierId != entry.supplierId) {
+                move(bySupplier, old.supplierId, entry.supplierId, id);
+            }
+            if (!Objects.equals(old.location, entry.location)) {
+                if (old.location != null) {
+                    removeId(byLocation, old.location, id);
+                }
+                if (entry.location != null) {
+                    addId(byLocation, entry.location, id);
+                }
+            }
+            if (old.priceInCents != entry.priceInCents) {
+                removeId(byPrice, old.priceInCents, id);
+                addId(byPrice, entry.priceInCents, id);
+            }
+            if (old.quantity != entry.quantity) {
+                TreeMap<Integer, IdSet> byQuantity = stripeFor(id).byQuantity;
+                removeId(byQuantity, old.quantity, id);
+                addId(byQuantity, entry.quantity, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // La quantité suivie est celle de l'index : les mouvements concurrents d'un même
+    // produit arrivent dans l'ordre où ils ont été appliqués, et passent par la même tranche
+    @Override
+    public void stockMoved(Product product, int quantityDelta, int reservedDelta) {
+        if (quantityDelta == 0) {
+            return;
+        }
+        int id = product.getId();
+        lock.readLock().lock();
+        try {
+            Entry entry = entry(id);
+            if (entry == null) {
+                return;
+            }
+            QuantityStripe stripe = stripeFor(id);
+            stripe.lock.writeLock().lock();
+            try {
+                removeId(stripe.byQuantity, entry.quantity, id);
+                entry.quantity += quantityDelta;
+                addId(stripe.byQuantity, entry.quantity, id);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Appelé sous verrou exclusif : aucun mouvement de stock ni requête en cours
+    private void add(Product product) {
+        Entry entry = entryOf(product);
+        int id = entry.id;
+        if (entryCount == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length + (entries.length >> 1));
+        }
+        slotById.put(id, entryCount);
+        entries[entryCount++] = entry;
+        allIds.add(id);
+
+        if (entry.categoryId != NONE) {
+            addId(byCategory, entry.categoryId, id);
+        }
+        if (entry.supplierId != NONE) {
+            addId(bySupplier, entry.supplierId, id);
+        }
+        if (entry.location != null) {
+            addId(byLocation, entry.location, id);
+        }
+        addId(byPrice, entry.priceInCents, id);
+        addId(stripeFor(id).byQuantity, entry.quantity, id);
+    }
+
+    private void remove(int productId) {
+        int slot = slotById.remove(productId);
+        if (slot == IntIntMap.NO_VALUE) {
+            return;
+        }
+        Entry entry = entries[slot];
+        Entry last = entries[--entryCount];
+        entries[entryCount] = null;
+        if (slot != entryCount) {
+            entries[slot] = last;
+            slotById.put(last.id, slot);
+        }
+        allIds.remove(productId);
+        if (entry.categoryId != NONE) {
+            removeId(byCategory, entry.categoryId, productId);
+        }
+        if (entry.supplierId != NONE) {
+            removeId(bySupplier, entry.supplierId, productId);
+        }
+        if (entry.location != null) {
+            removeId(byLocation, entry.location, productId);
+        }
+        removeId(byPrice, entry.priceInCents, productId);
+        removeId(stripeFor(productId).byQuantity, entry.quantity, productId);
+    }
+
+    private static Entry entryOf(Product product) {
+        return new Entry(
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : NONE,
+                product.getSupplier() != null ? product.getSupplier().getId() : NONE,
+                product.getLocation(),
+                Math.round(product.getPrice() * 100),
+                product.getQuantity());
+    }
+
+    private static void move(Map<Integer, IdSet> index, int oldKey, int newKey, int productId) {
+        if (oldKey != NONE) {
+            removeId(index, oldKey, productId);
+        }
+        if (newKey != NONE) {
+            addId(index, newKey, productId);
+        }
+    }
+
+    private static <K> void addId(Map<K, IdSet> index, K key, int productId) {
+        index.computeIfAbsent(key, k -> new IdSet()).add(productId);
+    }
+
+    private static <K> void removeId(Map<K, IdSet> index, K key, int productId) {
+        IdSet ids = index.get(key);
+        if (ids != null && ids.remove(productId) && ids.size == 0) {
+            index.remove(key);
+        }
+    }
+
+    private Entry entry(int productId) {
+        int slot = slotById.get(productId);
+        return slot != IntIntMap.NO_VALUE ? entries[slot] : null;
+    }
+
+    private QuantityStripe stripeFor(int productId) {
+        return quantityStripes[productId & (QUANTITY_STRIPES - 1)];
+    }
+
+    // ========== Requêtes ==========
+
+    // IDs croissants des produits satisfaisant les critères de la requête d'après les
+    // valeurs indexées (le prix est comparé au centime près : l'appelant revérifie le produit)
+    public int[] select(ProductQuery query) {
+        long minCents = query.getMinPrice() == Double.NEGATIVE_INFINITY
+                ? Long.MIN_VALUE : (long) Math.floor(query.getMinPrice() * 100);
+        long maxCents = query.getMaxPrice() == Double.POSITIVE_INFINITY
+                ? Long.MAX_VALUE : (long) Math.ceil(query.getMaxPrice() * 100);
+
+        lock.readLock().lock();
+        // Intervalle de quantité : les tranches sont figées le temps de la requête
+        boolean quantityLocked = query.hasQuantityRange();
+        if (quantityLocked) {
+            for (QuantityStripe stripe : quantityStripes) {
+                stripe.lock.readLock().lock();
+            }
+        }
+        try {
+            // Critère le plus sélectif : ensemble le plus petit (somme des ensembles pour un intervalle)
+            Collection<IdSet> driver = null;
+            long driverCost = Long.MAX_VALUE;
+            for (IdSet ids : new IdSet[]{
+                    query.getCategoryId() != null ? get(byCategory, query.getCategoryId()) : null,
+                    query.getSupplierId() != null ? get(bySupplier, query.getSupplierId()) : null,
+                    query.getLocation() != null ? get(byLocation, query.getLocation()) : null}) {
+                if (ids == EMPTY) {
+                    return new int[0];
+                }
+                if (ids != null && ids.size < driverCost) {
+                    driver = List.of(ids);
+                    driverCost = ids.size;
+                }
+            }
+            if (query.hasPriceRange()) {
+                NavigableMap<Long, IdSet> range = byPrice.subMap(minCents, true, maxCents, true);
+                long cost = cost(range.values(), driverCost);
+                if (cost == 0) {
+                    return new int[0];
+                }
+                if (cost < driverCost) {
+                    driver = range.values();
+                    driverCost = cost;
+                }
+            }
+            if (quantityLocked) {
+                List<IdSet> range = new ArrayList<>();
+                for (QuantityStripe stripe : quantityStripes) {
+                    range.addAll(stripe.byQuantity.subMap(
+                            query.getMinQuantity(), true, query.getMaxQuantity(), true).values());
+                }
+                long cost = cost(range, driverCost);
+                if (cost == 0) {
+                    return new int[0];
+                }
+                if (cost < driverCost) {
+                    driver = range;
+                    driverCost = cost;
+                }
+            }
+
+            if (driver == null) {
+                // Aucun critère : rien à vérifier
+                return allIds.toArray();
+            }
+            int[] candidates = union(driver, driverCost);
+            int count = 0;
+            for (int id : candidates) {
+                Entry entry = entry(id);
+                if ((query.getCategoryId() == null || entry.categoryId == query.getCategoryId())
+                        && (query.getSupplierId() == null || entry.supplierId == query.getSupplierId())
+                        && (query.getLocation() == null || query.getLocation().equals(entry.location))
+                        && entry.priceInCents >= minCents && entry.priceInCents <= maxCents
+                        && entry.quantity >= query.getMinQuantity() && entry.quantity <= query.getMaxQuantity()) {
+                    candidates[count++] = id;
+                }
+            }
+            return Arrays.copyOf(candidates, count);
+        } finally {
+            if (quantityLocked) {
+                for (QuantityStripe stripe : quantityStripes) {
+                    stripe.lock.readLock().unlock();
+                }
+            }
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> IdSet get(Map<K, IdSet> index, K key) {
+        IdSet ids = index.get(key);
+        return ids != null ? ids : EMPTY;
+    }
+
+    // Somme des tailles, arrêtée dès qu'elle atteint limit
+    private static long cost(Collection<IdSet> sets, long limit) {
+        long cost = 0;
+        for (IdSet ids : sets) {
+            cost += ids.size;
+            if (cost >= limit) {
+                break;
+            }
+        }
+        return cost;
+    }
+
+    // Les ensembles d'un même index sont disjoints
+    private static int[] union(Collection<IdSet> sets, long size) {
+        int[] ids = new int[(int) size];
+        int count = 0;
+        for (IdSet set : sets) {
+            count = set.copyTo(ids, count);
+        }
+        if (sets.size() > 1) {
+            Arrays.sort(ids);
+        }
+        return ids;
+    }
+
+    // ========== Structures internes ==========
+
+    private static class Entry {
+        final int id;
+        final int categoryId;
+        final int supplierId;
+        final String location;
+        final long priceInCents;
+        // Modifiée sous le verrou de la tranche, lue sans lui par les requêtes sans intervalle de quantité
+        volatile int quantity;
+
+        Entry(int id, int categoryId, int supplierId, String location, long priceInCents, int quantity) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.supplierId = supplierId;
+            this.location = location;
+            this.priceInCents = priceInCents;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class QuantityStripe {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final TreeMap<Integer, IdSet> byQuantity = new TreeMap<>();
+    }
+
+    // Ensemble d'IDs trié : tableau tant qu'il compte au plus ARRAY_LIMIT IDs, puis blocs de
+    // 65536 IDs consécutifs (16 bits de poids fort). Un ajout ou un retrait décale au plus
+    // ARRAY_LIMIT entrées, quelle que soit la taille de l'ensemble, et un ID isolé très grand
+    // n'occupe qu'un petit bloc.
+    private static class IdSet {
+        int size;
+        private int[] ids = new int[2];
+        // Mode blocs (ids == null) : poids forts triés et blocs correspondants
+        private int[] keys;
+        private Block[] blocks;
+        private int blockCount;
+
+        void add(int id) {
+            if (ids == null) {
+                int index = blockIndex(id >>> 16);
+                if (index < 0) {
+                    index = -index - 1;
+                    if (blockCount == keys.length) {
+                        keys = Arrays.copyOf(keys, blockCount * 2);
+                        blocks = Arrays.copyOf(blocks, blockCount * 2);
+                    }
+                    System.arraycopy(keys, index, keys, index + 1, blockCount - index);
+                    System.arraycopy(blocks, index, blocks, index + 1, blockCount - index);
+                    keys[index] = id >>> 16;
+                    blocks[index] = new Block();
+                    blockCount++;
+                }
+                if (blocks[index].add((char) id)) {
+                    size++;
+                }
+                return;
+            }
+            int pos = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return; // déjà présent
+            }
+            if (size == ARRAY_LIMIT) {
+                toBlocks();
+                add(id);
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            if (ids == null) {
+                int index = blockIndex(id >>> 16);
+                if (index < 0 || !blocks[index].remove((char) id)) {
+                    return false;
+                }
+                size--;
+                if (blocks[index].count == 0) {
+                    System.arraycopy(keys, index + 1, keys, index, blockCount - index - 1);
+                    System.arraycopy(blocks, index + 1, blocks, index, blockCount - index - 1);
+                    blocks[--blockCount] = null;
+                }
+                if (size < ARRAY_LIMIT / 2) {
+                    int[] merged = new int[Math.max(2, size)];
+                    copyTo(merged, 0);
+                    ids = merged;
+                    keys = null;
+                    blocks = null;
+                    blockCount = 0;
+                }
+                return true;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        // Copie les IDs croissants à partir de target[offset] ; retourne la position suivante
+        int copyTo(int[] target, int offset) {
+            if (ids != null) {
+                System.arraycopy(ids, 0, target, offset, size);
+                return offset + size;
+            }
+            for (int i = 0; i < blockCount; i++) {
+                offset = blocks[i].copyTo(keys[i] << 16, target, offset);
+            }
+            return offset;
+        }
+
+        int[] toArray() {
+            int[] result = new int[size];
+            copyTo(result, 0);
+            return result;
+        }
+
+        private int blockIndex(int key) {
+            if (blockCount > 0 && keys[blockCount - 1] == key) {
+                return blockCount - 1;
+            }
+            return Arrays.binarySearch(keys, 0, blockCount, key);
+        }
+
+        private void toBlocks() {
+            int[] sorted = ids;
+            int count = size;
+            ids = null;
+            keys = new int[4];
+            blocks = new Block[4];
+            size = 0;
+            for (int i = 0; i < count; i++) {
+                add(sorted[i]);
+            }
+        }
+    }
+
+    // 16 bits de poids faible des IDs d'un bloc : tableau trié jusqu'à ARRAY_LIMIT valeurs,
+    // bitmap de 8 Ko au-delà (même taille que le tableau plein)
+    private static class Block {
+        int count;
+        private char[] values = new char[4];
+        private long[] bits;
+
+        boolean add(char low) {
+            if (bits != null) {
+                long bit = 1L << low;
+                if ((bits[low >>> 6] & bit) != 0) {
+                    return false;
+                }
+                bits[low >>> 6] |= bit;
+                count++;
+                return true;
+            }
+            int pos = count == 0 || values[count - 1] < low ? -count - 1 : Arrays.binarySearch(values, 0, count, low);
+            if (pos >= 0) {
+                return false;
+            }
+            if (count == ARRAY_LIMIT) {
+                bits = new long[1024];
+                for (int i = 0; i < count; i++) {
+                    bits[values[i] >>> 6] |= 1L << values[i];
+                }
+                values = null;
+                return add(low);
+            }
+            pos = -pos - 1;
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, count - pos);
+            values[pos] = low;
+            count++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long bit = 1L << low;
+                if ((bits[low >>> 6] & bit) == 0) {
+                    return false;
+                }
+                bits[low >>> 6] &= ~bit;
+                count--;
+                if (count < ARRAY_LIMIT / 2) {
+                    char[] sorted = new char[ARRAY_LIMIT];
+                    int n = 0;
+                    for (int i = 0; i < bits.length; i++) {
+                        for (long word = bits[i]; word != 0; word &= word - 1) {
+                            sorted[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                        }
+                    }
+                    values = sorted;
+                    bits = null;
+                }
+                return true;
+            }
+            int pos = Arrays.binarySearch(values, 0, count, low);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(values, pos + 1, values, pos, count - pos - 1);
+            count--;
+            return true;
+        }
+
+        int copyTo(int high, int[] target, int offset) {
+            if (bits == null) {
+                for (int i = 0; i < count; i++) {
+                    target[offset++] = high | values[i];
+                }
+                return offset;
+            }
+            for (int i = 0; i < bits.length; i++) {
+                for (long word = bits[i]; word != 0; word &= word - 1) {
+                    target[offset++] = high | (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+            return offset;
+        }
+    }
+}
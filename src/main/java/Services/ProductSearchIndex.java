@@ -0,0 +1,714 @@
+package Services;
+
+import Models.IntIntMap;
+import Models.InventoryListener;
+import Models.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Index de recherche plein texte sur le nom, la description et le SKU des produits.
+//
+// - Les textes sont repliés (minuscules, sans accents, œ -> oe) puis découpés en termes ;
+//   les mots vides français courants ne sont pas indexés.
+// - Dictionnaire trié terme -> liste triée d'IDs (avec les champs où le terme apparaît) :
+//   une recherche par préfixe est un parcours de plage du dictionnaire ; une table de
+//   hachage sur les mêmes listes sert les recherches exactes. Les SKU complets ont leur
+//   propre dictionnaire.
+// - Les candidats sont parcourus par ID croissant : le parcours s'arrête dès que les
+//   meilleurs résultats atteignent le score maximal possible pour la requête.
+// - Les termes de chaque produit sont conservés pour le retirer ou le réindexer lors
+//   d'une modification, et pour vérifier et noter les candidats sans relire les produits.
+// Tenu à jour par les événements d'InventoryListener.
+public class ProductSearchIndex implements InventoryListener {
+
+    private static final byte NAME = 1;
+    private static final byte DESCRIPTION = 2;
+    private static final byte SKU = 4;
+    private static final String[] NO_TERMS = new String[0];
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "d", "de", "des", "du", "en", "et", "l", "la", "le", "les",
+            "pour", "sur", "un", "une");
+    // Nombre maximal de termes examinés pour une suggestion
+    private static final int MAX_SUGGESTION_SCAN = 10_000;
+    // Au-delà, les candidats d'un préfixe sont dédoublonnés en bloc plutôt que fusionnés
+    private static final int MAX_MERGED_TERMS = 32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Postings> termsByName = new HashMap<>();
+    private final TreeMap<String, Postings> skus = new TreeMap<>();
+    // Termes de chaque produit, en emplacements contigus (suppression par échange avec le dernier)
+    private final IntIntMap slotById = new IntIntMap(1024);
+    private Entry[] entries = new Entry[1024];
+    private int entryCount;
+
+    // ========== Synchronisation avec l'inventaire ==========
+
+    @Override
+    public void productAdded(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Les anciens termes sont ceux conservés dans l'index
+    @Override
+    public void productUpdated(Product previous, Product current) {
+        productAdded(current);
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Product product) {
+        int id = product.getId();
+        String sku = product.getSku() != null ? fold(product.getSku().trim()) : "";
+        Entry entry = new Entry(
+                id,
+                canonical(tokenize(product.getName())),
+                canonical(tokenize(product.getDescription())),
+                canonical(tokenize(product.getSku())),
+                sku.isEmpty() ? null : sku);
+        if (entryCount == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length + (entries.length >> 1));
+        }
+        slotById.put(id, entryCount);
+        entries[entryCount++] = entry;
+
+        addTerms(id, entry.nameTerms, entry);
+        addTerms(id, entry.descriptionTerms, entry);
+        addTerms(id, entry.skuTerms, entry);
+        if (entry.sku != null) {
+            skus.computeIfAbsent(entry.sku, Postings::new).add(id, SKU);
+        }
+    }
+
+    // Un terme présent dans plusieurs champs n'est inscrit qu'une fois, avec tous ses champs
+    private void addTerms(int productId, String[] productTerms, Entry entry) {
+        for (String term : productTerms) {
+            Postings postings = termsByName.get(term);
+            if (postings == null) {
+                postings = new Postings(term);
+                termsByName.put(term, postings);
+                terms.put(term, postings);
+            } else if (postings.size > 0 && postings.ids[postings.size - 1] == productId) {
+                continue;
+            }
+            postings.add(productId, entry.fields(term));
+        }
+    }
+
+    private void remove(int productId) {
+        int slot = slotById.remove(productId);
+        if (slot == IntIntMap.NO_VALUE) {
+            return;
+        }
+        Entry entry = entries[slot];
+        Entry last = entries[--entryCount];
+        entries[entryCount] = null;
+        if (slot != entryCount) {
+            entries[slot] = last;
+            slotById.put(last.id, slot);
+        }
+        removeTerms(productId, entry.nameTerms);
+        removeTerms(productId, entry.descriptionTerms);
+        removeTerms(productId, entry.skuTerms);
+        if (entry.sku != null) {
+            Postings postings = skus.get(entry.sku);
+            if (postings != null && postings.remove(productId) && postings.size == 0) {
+                skus.remove(entry.sku);
+            }
+        }
+    }
+
+    private void removeTerms(int productId, String[] productTerms) {
+        for (String term : productTerms) {
+            Postings postings = termsByName.get(term);
+            if (postings != null && postings.remove(productId) && postings.size == 0) {
+                termsByName.remove(term);
+                terms.remove(term);
+            }
+        }
+    }
+
+    private Entry entry(int productId) {
+        int slot = slotById.get(productId);
+        return slot != IntIntMap.NO_VALUE ? entries[slot] : null;
+    }
+
+    // Réutilise la chaîne déjà présente dans le dictionnaire
+    private String[] canonical(List<String> tokens) {
+        String[] result = tokens.isEmpty() ? NO_TERMS : new String[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            String token = tokens.get(i);
+            Postings existing = termsByName.get(token);
+            result[i] = existing != null ? existing.term : token;
+        }
+        return result;
+    }
+
+    // ========== Recherche ==========
+
+    // IDs des produits contenant tous les termes de la requête (le dernier pouvant être un
+    // début de mot), du plus pertinent au moins pertinent
+    public int[] search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return new int[0];
+        }
+        // Mot en cours de saisie : préfixe, même s'il s'agit d'un mot vide ("la" pour "lampe")
+        String foldedQuery = fold(query.trim());
+        boolean typingLastWord = !query.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        List<String> tokens = tokenize(query, typingLastWord);
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] ids = search(tokens, foldedQuery, limit);
+            // Aucun mot ne prolonge le mot vide parmi les résultats : il est ignoré, comme une
+            // fois terminé ("lampe de" trouve "Lampe de chantier")
+            String last = tokens.get(tokens.size() - 1);
+            if (ids.length == 0 && tokens.size() > 1 && STOP_WORDS.contains(last)) {
+                ids = search(tokens.subList(0, tokens.size() - 1), foldedQuery, limit);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Appelé sous verrou partagé
+    private int[] search(List<String> tokens, String foldedQuery, int limit) {
+        // Score maximal possible : correspondance exacte de chaque terme dans le nom (dans la
+        // description seulement si le terme n'apparaît dans aucun nom ni SKU ; début de mot
+        // pour le dernier terme s'il n'existe pas tel quel), plus les bonus
+        int maxScore = 5 + skuBonusBound(foldedQuery);
+        List<Postings> required = new ArrayList<>();
+        for (String token : tokens.subList(0, tokens.size() - 1)) {
+            Postings postings = termsByName.get(token);
+            if (postings == null) {
+                return new int[0];
+            }
+            required.add(postings);
+            maxScore += postings.nameOrSkuCount > 0 ? 10 : 3;
+        }
+        String last = tokens.get(tokens.size() - 1);
+        Postings exactLast = termsByName.get(last);
+        maxScore += exactLast != null && exactLast.nameOrSkuCount > 0 ? 10 : 6;
+        required.sort(Comparator.comparingInt(postings -> postings.size));
+
+        // Les candidats viennent du terme exact le plus sélectif ou de la plage du préfixe
+        NavigableMap<String, Postings> range = prefixRange(terms, last);
+        long driverCost = required.isEmpty() ? Long.MAX_VALUE : required.get(0).size;
+        long rangeCost = 0;
+        for (Postings postings : range.values()) {
+            rangeCost += postings.size;
+            if (rangeCost >= driverCost) {
+                break;
+            }
+        }
+        if (rangeCost == 0) {
+            return new int[0];
+        }
+        Postings driver = rangeCost < driverCost ? null : required.remove(0);
+
+        Query search = new Query(tokens, foldedQuery, required, maxScore, limit);
+        search.skuMatches(foldedQuery.isEmpty() ? null : skus.get(foldedQuery));
+        if (driver != null) {
+            search.scan(driver);
+        } else if (range.size() == 1) {
+            search.scan(range.firstEntry().getValue());
+        } else if (range.size() <= MAX_MERGED_TERMS) {
+            search.merge(range.values());
+        } else {
+            search.union(range.values());
+        }
+        return search.top.toIds();
+    }
+
+    private int skuBonusBound(String foldedQuery) {
+        if (foldedQuery.isEmpty()) {
+            return 0;
+        }
+        String sku = skus.ceilingKey(foldedQuery);
+        if (sku == null || !sku.startsWith(foldedQuery)) {
+            return 0;
+        }
+        return sku.equals(foldedQuery) ? 100 : 20;
+    }
+
+    // Termes commençant par prefix, du plus fréquent au moins fréquent dans les noms et SKU
+    public List<String> suggest(String prefix, int limit) {
+        String folded = prefix != null ? fold(prefix.trim()) : "";
+        if (folded.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            // Tas du moins bon au meilleur : fréquence croissante, puis ordre alphabétique inverse
+            PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>((a, b) -> {
+                int byCount = Integer.compare(a.getValue(), b.getValue());
+                return byCount != 0 ? byCount : b.getKey().compareTo(a.getKey());
+            });
+            collectSuggestions(prefixRange(terms, folded), best, limit);
+            collectSuggestions(prefixRange(skus, folded), best, limit);
+            List<String> suggestions = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                suggestions.add(best.poll().getKey());
+            }
+            Collections.reverse(suggestions);
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collectSuggestions(NavigableMap<String, Postings> range,
+                                           PriorityQueue<Map.Entry<String, Integer>> best, int limit) {
+        int scanned = 0;
+        for (Postings postings : range.values()) {
+            if (++scanned > MAX_SUGGESTION_SCAN) {
+                break;
+            }
+            if (postings.nameOrSkuCount == 0) {
+                continue;
+            }
+            best.offer(Map.entry(postings.term, postings.nameOrSkuCount));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+    }
+
+    private static NavigableMap<String, Postings> prefixRange(TreeMap<String, Postings> dictionary, String prefix) {
+        return dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // 0 si un terme de la requête est absent du produit
+    private static int score(Entry entry, List<String> tokens, String foldedQuery) {
+        int score = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            int tokenScore = entry.match(tokens.get(i), i == tokens.size() - 1);
+            if (tokenScore == 0) {
+                return 0;
+            }
+            score += tokenScore;
+        }
+        if (entry.sku != null) {
+            if (entry.sku.equals(foldedQuery)) {
+                score += 100;
+            } else if (entry.sku.startsWith(foldedQuery)) {
+                score += 20;
+            }
+        }
+        // Nom commençant par la requête
+        if (entry.nameTerms.length > 0 && entry.nameTerms[0].startsWith(tokens.get(0))) {
+            score += 5;
+        }
+        return score;
+    }
+
+    // ========== Repli des textes ==========
+
+    // Minuscules sans accents ; œ/æ développés
+    static String fold(String text) {
+        StringBuilder folded = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = null;
+            char simple = c;
+            if (c >= 'A' && c <= 'Z') {
+                simple = (char) (c + ('a' - 'A'));
+            } else if (c >= 0x80) {
+                char lower = Character.toLowerCase(c);
+                switch (lower) {
+                    case 'à', 'â', 'ä', 'á', 'ã', 'å' -> simple = 'a';
+                    case 'ç' -> simple = 'c';
+                    case 'é', 'è', 'ê', 'ë' -> simple = 'e';
+                    case 'î', 'ï', 'í', 'ì' -> simple = 'i';
+                    case 'ô', 'ö', 'ó', 'ò', 'õ' -> simple = 'o';
+                    case 'ù', 'û', 'ü', 'ú' -> simple = 'u';
+                    case 'ÿ', 'ý' -> simple = 'y';
+                    case 'ñ' -> simple = 'n';
+                    case 'œ' -> replacement = "oe";
+                    case 'æ' -> replacement = "ae";
+                    default -> replacement = stripMarks(lower);
+                }
+            }
+            if (folded == null && (simple != c || replacement != null)) {
+                folded = new StringBuilder(text.length() + 4).append(text, 0, i);
+            }
+            if (folded != null) {
+                if (replacement != null) {
+                    folded.append(replacement);
+                } else {
+                    folded.append(simple);
+                }
+            }
+        }
+        return folded != null ? folded.toString() : text;
+    }
+
+    private static String stripMarks(char c) {
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char d = decomposed.charAt(i);
+            if (Character.getType(d) != Character.NON_SPACING_MARK) {
+                result.append(d);
+            }
+        }
+        return result.toString();
+    }
+
+    // Termes distincts d'un texte, dans l'ordre d'apparition, sans mots vides
+    static List<String> tokenize(String text) {
+        return tokenize(text, false);
+    }
+
+    // keepLastStopWord : le dernier terme est gardé même s'il est vide (préfixe d'une requête)
+    static List<String> tokenize(String text, boolean keepLastStopWord) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i);
+                boolean keep = !STOP_WORDS.contains(token) || keepLastStopWord && i == folded.length();
+                if (keep && !tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // ========== Structures internes ==========
+
+    // Termes repliés d'un produit
+    private static class Entry {
+        final int id;
+        final String[] nameTerms;
+        final String[] descriptionTerms;
+        final String[] skuTerms;
+        final String sku;
+
+        Entry(int id, String[] nameTerms, String[] descriptionTerms, String[] skuTerms, String sku) {
+            this.id = id;
+            this.nameTerms = nameTerms;
+            this.descriptionTerms = descriptionTerms;
+            this.skuTerms = skuTerms;
+            this.sku = sku;
+        }
+
+        // Champs du produit contenant le terme
+        byte fields(String term) {
+            byte fields = 0;
+            if (contains(nameTerms, term)) {
+                fields |= NAME;
+            }
+            if (contains(descriptionTerms, term)) {
+                fields |= DESCRIPTION;
+            }
+            if (contains(skuTerms, term)) {
+                fields |= SKU;
+            }
+            return fields;
+        }
+
+        private static boolean contains(String[] productTerms, String term) {
+            for (String t : productTerms) {
+                if (t.equals(term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Meilleure correspondance du terme dans les champs du produit (0 : absent)
+        int match(String token, boolean prefix) {
+            int best = match(nameTerms, token, prefix, 10, 6);
+            best = Math.max(best, match(skuTerms, token, prefix, 8, 5));
+            if (best == 0) {
+                best = match(descriptionTerms, token, prefix, 3, 2);
+            }
+            return best;
+        }
+
+        private static int match(String[] productTerms, String token, boolean prefix, int exact, int partial) {
+            int best = 0;
+            for (String term : productTerms) {
+                if (term.equals(token)) {
+                    return exact;
+                }
+                if (prefix && term.startsWith(token)) {
+                    best = partial;
+                }
+            }
+            return best;
+        }
+    }
+
+    // Liste d'IDs triée, avec les champs du produit où le terme apparaît
+    private static class Postings {
+        final String term;
+        int[] ids = new int[2];
+        byte[] fields = new byte[2];
+        int size;
+        int nameOrSkuCount;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int id, byte field) {
+            int pos = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                pos = -pos - 1;
+            } else if (pos < size) {
+                return; // déjà présent
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(fields, pos, fields, pos + 1, size - pos);
+            ids[pos] = id;
+            fields[pos] = field;
+            size++;
+            if ((field & (NAME | SKU)) != 0) {
+                nameOrSkuCount++;
+            }
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            if ((fields[pos] & (NAME | SKU)) != 0) {
+                nameOrSkuCount--;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(fields, pos + 1, fields, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+
+    // Évaluation d'une requête : les candidats arrivent par ID croissant, sont filtrés par
+    // les listes des termes exacts puis notés. Chaque liste exigée n'est parcourue qu'une
+    // fois, par bonds, depuis la position du candidat précédent
+    private class Query {
+        final List<String> tokens;
+        final String foldedQuery;
+        final Postings[] required;
+        final int[] cursors;
+        final int maxScore;
+        final TopResults top;
+
+        Query(List<String> tokens, String foldedQuery, List<Postings> required, int maxScore, int limit) {
+            this.tokens = tokens;
+            this.foldedQuery = foldedQuery;
+            this.required = required.toArray(new Postings[0]);
+            this.cursors = new int[this.required.length];
+            this.maxScore = maxScore;
+            this.top = new TopResults(limit);
+        }
+
+        // Produits dont le SKU est exactement la requête : évalués en premier, puis ignorés
+        void skuMatches(Postings postings) {
+            if (postings == null) {
+                return;
+            }
+            for (int i = 0; i < postings.size; i++) {
+                int score = score(entry(postings.ids[i]), tokens, foldedQuery);
+                if (score > 0) {
+                    top.offer(postings.ids[i], score);
+                }
+            }
+        }
+
+        // Intersection par sauts : un ID absent d'une liste exigée fait avancer la liste
+        // parcourue jusqu'au suivant de cette liste
+        void scan(Postings postings) {
+            int i = 0;
+            while (i < postings.size && !top.reached(maxScore)) {
+                i = seek(postings, i + 1, evaluate(postings.ids[i]));
+            }
+        }
+
+        // Fusion des listes de quelques termes
+        void merge(Collection<Postings> range) {
+            Postings[] lists = range.toArray(new Postings[0]);
+            int[] positions = new int[lists.length];
+            while (!top.reached(maxScore)) {
+                int next = Integer.MAX_VALUE;
+                for (int i = 0; i < lists.length; i++) {
+                    if (positions[i] < lists[i].size) {
+                        next = Math.min(next, lists[i].ids[positions[i]]);
+                    }
+                }
+                if (next == Integer.MAX_VALUE) {
+                    return;
+                }
+                for (int i = 0; i < lists.length; i++) {
+                    if (positions[i] < lists[i].size && lists[i].ids[positions[i]] == next) {
+                        positions[i]++;
+                    }
+                }
+                evaluate(next);
+            }
+        }
+
+        // Nombreux termes : un produit ne doit être évalué qu'une fois. Les IDs sont marqués
+        // dans un BitSet décalé sur la plage [min, max] des listes quand elle est dense,
+        // triés et dédoublonnés sinon : la mémoire reste proportionnelle aux candidats
+        void union(Collection<Postings> range) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            long total = 0;
+            for (Postings postings : range) {
+                if (postings.size > 0) {
+                    min = Math.min(min, postings.ids[0]);
+                    max = Math.max(max, postings.ids[postings.size - 1]);
+                    total += postings.size;
+                }
+            }
+            if (total == 0) {
+                return;
+            }
+            if (((long) max - min) / 64 <= total) {
+                BitSet seen = new BitSet(max - min + 1);
+                for (Postings postings : range) {
+                    for (int i = 0; i < postings.size; i++) {
+                        seen.set(postings.ids[i] - min);
+                    }
+                }
+                for (int bit = seen.nextSetBit(0); bit >= 0 && !top.reached(maxScore); bit = seen.nextSetBit(bit + 1)) {
+                    evaluate(bit + min);
+                }
+                return;
+            }
+            int[] ids = new int[(int) total];
+            int count = 0;
+            for (Postings postings : range) {
+                System.arraycopy(postings.ids, 0, ids, count, postings.size);
+                count += postings.size;
+            }
+            Arrays.sort(ids);
+            for (int i = 0; i < count && !top.reached(maxScore); i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    evaluate(ids[i]);
+                }
+            }
+        }
+
+        // Renvoie le prochain ID pouvant encore correspondre
+        private int evaluate(int productId) {
+            for (int i = 0; i < required.length; i++) {
+                Postings postings = required[i];
+                cursors[i] = seek(postings, cursors[i], productId);
+                if (cursors[i] == postings.size) {
+                    return Integer.MAX_VALUE;
+                }
+                if (postings.ids[cursors[i]] != productId) {
+                    return postings.ids[cursors[i]];
+                }
+            }
+            Entry entry = entry(productId);
+            if (entry != null && !foldedQuery.equals(entry.sku)) {
+                int score = score(entry, tokens, foldedQuery);
+                if (score > 0) {
+                    top.offer(productId, score);
+                }
+            }
+            return productId == Integer.MAX_VALUE ? productId : productId + 1;
+        }
+    }
+
+    // Position du premier ID >= productId à partir de from : bonds doublés, puis recherche
+    // dichotomique dans le dernier intervalle
+    private static int seek(Postings postings, int from, int productId) {
+        if (from >= postings.size || postings.ids[from] >= productId) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        int high = low + 1;
+        while (high < postings.size && postings.ids[high] < productId) {
+            low = high;
+            step <<= 1;
+            high = low + step;
+        }
+        int pos = Arrays.binarySearch(postings.ids, low + 1, Math.min(high, postings.size), productId);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    // Meilleurs résultats (score décroissant, puis ID croissant)
+    private static class TopResults {
+        private final int limit;
+        private final PriorityQueue<Long> heap = new PriorityQueue<>();
+
+        TopResults(int limit) {
+            this.limit = limit;
+        }
+
+        void offer(int productId, int score) {
+            long key = ((long) score << 32) | (~productId & 0xFFFFFFFFL);
+            if (heap.size() < limit) {
+                heap.offer(key);
+            } else if (key > heap.peek()) {
+                heap.poll();
+                heap.offer(key);
+            }
+        }
+
+        // Les candidats arrivant par ID croissant, un score égal ne peut plus entrer
+        boolean reached(int maxScore) {
+            return heap.size() == limit && (heap.peek() >> 32) >= maxScore;
+        }
+
+        int[] toIds() {
+            int[] ids = new int[heap.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = ~(int) (long) heap.poll();
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package Services;
+
+import Models.Inventory;
+import Models.Product;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Génère plusieurs rapports en un seul parcours de l'inventaire.
+// Les produits sont lus par lots et chaque lot est transmis à toutes les étapes ; avec
+// plusieurs étapes, chacune tourne sur son propre thread derrière une file bornée (une
+// étape lente freine la lecture au lieu d'accumuler les lots). Les agrégats sont calculés
+// une seule fois et transmis à chaque étape en fin de parcours.
+public class ReportPipeline {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final int QUEUE_DEPTH = 8;
+    private static final Product[] END = new Product[0];
+
+    private final List<ReportSink> sinks = new ArrayList<>();
+
+    public ReportPipeline add(ReportSink sink) {
+        sinks.add(sink);
+        return this;
+    }
+
+    public ReportTotals run(Inventory inventory) throws IOException {
+        return run(inventory, ExportProgress.NONE);
+    }
+
+    // L'inventaire ne doit pas être modifié pendant le parcours (utiliser une copie)
+    public ReportTotals run(Inventory inventory, ExportProgress progress) throws IOException {
+        if (sinks.isEmpty()) {
+            throw new IllegalStateException("Aucune sortie dans le pipeline de rapports.");
+        }
+        if (sinks.size() == 1) {
+            return runInline(inventory, sinks.get(0), progress);
+        }
+
+        List<SinkWorker> workers = new ArrayList<>(sinks.size());
+        for (ReportSink sink : sinks) {
+            SinkWorker worker = new SinkWorker(sink);
+            workers.add(worker);
+            worker.start();
+        }
+
+        ReportTotals totals = new ReportTotals();
+        RuntimeException producerFailure = null;
+        try {
+            List<Product> products = inventory.getProducts();
+            int total = products.size();
+            for (int from = 0; from < total; from += BATCH_SIZE) {
+                Product[] batch = products.subList(from, Math.min(from + BATCH_SIZE, total)).toArray(new Product[0]);
+                for (Product product : batch) {
+                    totals.add(product);
+                }
+                for (SinkWorker worker : workers) {
+                    worker.put(batch);
+                }
+                if (firstFailure(workers) != null) {
+                    break;
+                }
+                progress.update(from + batch.length, total);
+            }
+            progress.update(totals.getProductCount(), total);
+        } catch (RuntimeException e) {
+            producerFailure = e;
+        } finally {
+            for (SinkWorker worker : workers) {
+                worker.finish(producerFailure == null ? totals : null);
+            }
+            for (SinkWorker worker : workers) {
+                worker.join();
+            }
+        }
+
+        if (producerFailure != null) {
+            throw producerFailure;
+        }
+        Exception failure = firstFailure(workers);
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+        return totals;
+    }
+
+    private static ReportTotals runInline(Inventory inventory, ReportSink sink, ExportProgress progress)
+            throws IOException {
+        ReportTotals totals = new ReportTotals();
+        Exception failure = null;
+        try {
+            sink.begin();
+            List<Product> products = inventory.getProducts();
+            int total = products.size();
+            for (Product product : products) {
+                totals.add(product);
+                sink.accept(product);
+                if (totals.getProductCount() % BATCH_SIZE == 0) {
+                    progress.update(totals.getProductCount(), total);
+                }
+            }
+            sink.end(totals);
+            progress.update(totals.getProductCount(), total);
+        } catch (Exception e) {
+            failure = e;
+        }
+        failure = closeQuietly(sink, failure);
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+        return totals;
+    }
+
+    private static Exception firstFailure(List<SinkWorker> workers) {
+        for (SinkWorker worker : workers) {
+            if (worker.failure != null) {
+                return worker.failure;
+            }
+        }
+        return null;
+    }
+
+    private static Exception closeQuietly(ReportSink sink, Exception failure) {
+        try {
+            sink.close();
+        } catch (Exception e) {
+            if (failure == null) {
+                return e;
+            }
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    private static IOException rethrow(Exception failure) {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof IOException) {
+            return (IOException) failure;
+        }
+        return new IOException("Erreur lors de la génération du rapport : " + failure.getMessage(), failure);
+    }
+
+    // Une étape et son thread ; après une erreur, les lots restants sont ignorés
+    // pour ne pas bloquer la lecture
+    private static class SinkWorker implements Runnable {
+        private final ReportSink sink;
+        private final BlockingQueue<Product[]> queue = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        private final Thread thread;
+        private volatile ReportTotals totals;
+        private volatile Exception failure;
+
+        SinkWorker(ReportSink sink) {
+            this.sink = sink;
+            this.thread = new Thread(this, "report-" + sink.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void put(Product[] batch) {
+            try {
+                queue.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Génération du rapport interrompue", e);
+            }
+        }
+
+        // totals à null : parcours abandonné, l'étape est seulement fermée
+        void finish(ReportTotals totals) {
+            this.totals = totals;
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(END);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void join() {
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            Exception error = null;
+            try {
+                sink.begin();
+            } catch (Exception e) {
+                error = e;
+                failure = e;
+            }
+            while (true) {
+                Product[] batch;
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    continue; // la fin du parcours est toujours signalée par END
+                }
+                if (batch == END) {
+                    break;
+                }
+                if (error != null) {
+                    continue;
+                }
+                try {
+                    for (Product product : batch) {
+                        sink.accept(product);
+                    }
+                } catch (Exception e) {
+                    error = e;
+                    failure = e;
+                }
+            }
+            if (error == null && totals != null) {
+                try {
+                    sink.end(totals);
+                } catch (Exception e) {
+                    error = e;
+                }
+            }
+            failure = closeQuietly(sink, error);
+        }
+    }
+}
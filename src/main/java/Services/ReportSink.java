@@ -0,0 +1,17 @@
+package Services;
+
+import Models.Product;
+
+// Étape de sortie du ReportPipeline (CSV, PDF, rapport texte...).
+// begin, accept pour chaque produit puis end sont appelés sur un même thread ;
+// close est toujours appelé, y compris après une erreur ou une annulation.
+public interface ReportSink {
+
+    default void begin() throws Exception { }
+
+    void accept(Product product) throws Exception;
+
+    void end(ReportTotals totals) throws Exception;
+
+    void close() throws Exception;
+}
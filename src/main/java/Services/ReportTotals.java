@@ -0,0 +1,25 @@
+package Services;
+
+import Models.Product;
+
+// Agrégats communs à tous les rapports, calculés pendant l'unique parcours des produits
+public class ReportTotals {
+    private int productCount;
+    private int lowStockCount;
+    private long totalQuantity;
+    private double totalValue;
+
+    void add(Product product) {
+        productCount++;
+        totalQuantity += product.getQuantity();
+        totalValue += product.getTotalValue();
+        if (product.isLowStock()) {
+            lowStockCount++;
+        }
+    }
+
+    public int getProductCount() { return productCount; }
+    public int getLowStockCount() { return lowStockCount; }
+    public long getTotalQuantity() { return totalQuantity; }
+    public double getTotalValue() { return totalValue; }
+}
@@ -0,0 +1,27 @@
+package Services;
+
+// Totaux d'un groupe de produits (une catégorie ou un fournisseur) à un instant donné
+public class StockRollup {
+    private final long productCount;
+    private final long totalQuantity;
+    private final double totalValue;
+    private final long lowStockCount;
+
+    StockRollup(long productCount, long totalQuantity, double totalValue, long lowStockCount) {
+        this.productCount = productCount;
+        this.totalQuantity = totalQuantity;
+        this.totalValue = totalValue;
+        this.lowStockCount = lowStockCount;
+    }
+
+    public long getProductCount() { return productCount; }
+    public long getTotalQuantity() { return totalQuantity; }
+    public double getTotalValue() { return totalValue; }
+    public long getLowStockCount() { return lowStockCount; }
+
+    @Override
+    public String toString() {
+        return productCount + " produit(s), " + totalQuantity + " unité(s), "
+                + String.format("%.2f €", totalValue) + ", " + lowStockCount + " en stock faible";
+    }
+}
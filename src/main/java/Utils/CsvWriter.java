@@ -0,0 +1,186 @@
+package Utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+
+// Écriture CSV en flux : les champs sont formatés dans un tampon de caractères réutilisé,
+// encodés en UTF-8 dans un grand tampon d'octets puis écrits dans un FileChannel.
+// Aucune chaîne intermédiaire n'est créée pour les nombres.
+public class CsvWriter implements Closeable {
+
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 256 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final FileChannel channel;
+    private final char separator;
+    private final char decimalSeparator;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final char[] chars = new char[CHAR_BUFFER_SIZE];
+    private final CharBuffer charView = CharBuffer.wrap(chars);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+    private final char[] digits = new char[20];
+    private int length;
+    private boolean firstField = true;
+
+    public CsvWriter(Path path, char separator) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.separator = separator;
+        // Même séparateur décimal que String.format dans la locale courante
+        this.decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+    }
+
+    // Champ texte, entre guillemets s'il contient le séparateur, un guillemet ou un saut de ligne
+    public CsvWriter field(String value) throws IOException {
+        startField();
+        if (value == null) {
+            return this;
+        }
+        if (needsQuoting(value)) {
+            append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    append('"');
+                }
+                append(c);
+            }
+            append('"');
+        } else {
+            append(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        startField();
+        appendLong(value);
+        return this;
+    }
+
+    // Nombre à deux décimales (arrondi au plus proche, comme %.2f)
+    public CsvWriter decimalField(double value) throws IOException {
+        startField();
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 9.0e16) {
+            append(String.format("%.2f", value));
+            return this;
+        }
+        long cents = DecimalUtils.roundToCents(value);
+        if (DecimalUtils.isNegative(value)) {
+            append('-');
+        }
+        appendLong(cents / 100);
+        append(decimalSeparator);
+        long fraction = cents % 100;
+        append((char) ('0' + fraction / 10));
+        append((char) ('0' + fraction % 10));
+        return this;
+    }
+
+    public CsvWriter endRow() throws IOException {
+        append(LINE_SEPARATOR);
+        firstField = true;
+        return this;
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startField() throws IOException {
+        if (!firstField) {
+            append(separator);
+        }
+        firstField = false;
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = pos; i < digits.length; i++) {
+            append(digits[i]);
+        }
+    }
+
+    private void append(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            append(value.charAt(i));
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (length == chars.length) {
+            encodeChars(false);
+        }
+        chars[length++] = c;
+    }
+
+    private void encodeChars(boolean endOfInput) throws IOException {
+        charView.limit(length).position(0);
+        while (true) {
+            CoderResult result = encoder.encode(charView, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        // Conserve un éventuel demi-caractère (surrogate) non encodé
+        int remaining = charView.remaining();
+        System.arraycopy(chars, charView.position(), chars, 0, remaining);
+        length = remaining;
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    public void flush() throws IOException {
+        encodeChars(false);
+        writeBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            encodeChars(true);
+            encoder.flush(bytes);
+            writeBytes();
+        } finally {
+            channel.close();
+        }
+    }
+}
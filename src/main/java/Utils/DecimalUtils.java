@@ -0,0 +1,32 @@
+package Utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class DecimalUtils {
+
+    // Au-delà, value * 100 n'a plus assez de précision pour le calcul rapide
+    private static final double FAST_PATH_LIMIT = 1.0e9;
+    private static final double HALF_MARGIN = 1.0e-4;
+
+    // Centimes de |value| arrondis comme %.2f : moitié loin de zéro sur les chiffres décimaux
+    // de la valeur (ceux de Double.toString), pas sur son approximation binaire.
+    // 1.005 est stocké 1.00499999..., mais %.2f affiche 1.01.
+    public static long roundToCents(double value) {
+        double absolute = Math.abs(value);
+        if (absolute < FAST_PATH_LIMIT) {
+            double scaled = absolute * 100;
+            double fraction = scaled - Math.floor(scaled);
+            // Loin d'une moitié, l'arrondi binaire et l'arrondi décimal coïncident
+            if (Math.abs(fraction - 0.5) > HALF_MARGIN) {
+                return Math.round(scaled);
+            }
+        }
+        return BigDecimal.valueOf(absolute).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    // Vrai aussi pour -0.0 et les petits négatifs, que %.2f affiche "-0.00"
+    public static boolean isNegative(double value) {
+        return Double.doubleToRawLongBits(value) < 0;
+    }
+}
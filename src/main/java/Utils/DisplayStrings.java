@@ -0,0 +1,63 @@
+package Utils;
+
+import java.text.DecimalFormatSymbols;
+
+// Chaînes d'affichage des tableaux, mises en cache : un montant ou un nombre déjà affiché
+// est resservi sans nouvelle allocation (cache à correspondance directe, 4096 entrées).
+// Une instance par vue, utilisée uniquement depuis le thread JavaFX.
+public class DisplayStrings {
+
+    private static final int CACHE_BITS = 12;
+    private static final String CURRENCY_SUFFIX = " €";
+
+    private final long[] amountKeys = new long[1 << CACHE_BITS];
+    private final String[] amountValues = new String[1 << CACHE_BITS];
+    private final long[] numberKeys = new long[1 << CACHE_BITS];
+    private final String[] numberValues = new String[1 << CACHE_BITS];
+    private final StringBuilder builder = new StringBuilder(32);
+    // Même séparateur décimal que String.format dans la locale courante
+    private final char decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+
+    // Équivalent de String.format("%.2f €", value)
+    public String amount(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 9.0e16) {
+            return String.format("%.2f €", value);
+        }
+        boolean negative = DecimalUtils.isNegative(value);
+        long absolute = DecimalUtils.roundToCents(value);
+        long key = negative ? ~absolute : absolute;
+        int slot = slot(key);
+        String cached = amountValues[slot];
+        if (cached != null && amountKeys[slot] == key) {
+            return cached;
+        }
+        builder.setLength(0);
+        if (negative) {
+            builder.append('-');
+        }
+        builder.append(absolute / 100).append(decimalSeparator);
+        long fraction = absolute % 100;
+        builder.append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+        builder.append(CURRENCY_SUFFIX);
+        String text = builder.toString();
+        amountKeys[slot] = key;
+        amountValues[slot] = text;
+        return text;
+    }
+
+    public String number(long value) {
+        int slot = slot(value);
+        String cached = numberValues[slot];
+        if (cached != null && numberKeys[slot] == value) {
+            return cached;
+        }
+        String text = Long.toString(value);
+        numberKeys[slot] = value;
+        numberValues[slot] = text;
+        return text;
+    }
+
+    private static int slot(long key) {
+        return ((int) (key ^ (key >>> 32)) * 0x9E3779B9) >>> (32 - CACHE_BITS);
+    }
+}
@@ -0,0 +1,92 @@
+package Models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Ajouts, modifications, mouvements de stock et suppressions aléatoires : les valeurs par
+// catégorie et par fournisseur des colonnes sont comparées à un recomptage des produits
+class ProductColumnsTest {
+
+    @Test
+    void valuesByGroupMatchRecount() {
+        Random random = new Random(5);
+        Inventory inventory = Inventory.createEmpty();
+        List<Category> categories = new ArrayList<>();
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Category category = new Category(0, "Catégorie " + i, "");
+            inventory.addCategory(category);
+            categories.add(category);
+            Supplier supplier = new Supplier(0, "Fournisseur " + i, "", "", "", "");
+            inventory.addSupplier(supplier);
+            suppliers.add(supplier);
+        }
+        inventory.enableColumnarStore();
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int operation = ids.isEmpty() ? 0 : random.nextInt(4);
+            int id = ids.isEmpty() ? 0 : ids.get(random.nextInt(ids.size()));
+            switch (operation) {
+                case 0 -> {
+                    Product product = new Product(0, "Produit " + i, "", random.nextInt(10_000) / 100.0,
+                            random.nextInt(50), 5, pick(random, categories), pick(random, suppliers), "P-" + i);
+                    inventory.addProduct(product);
+                    ids.add(product.getId());
+                }
+                case 1 -> {
+                    Product updated = inventory.getProductById(id).copy();
+                    updated.setPrice(random.nextInt(10_000) / 100.0);
+                    updated.setCategory(pick(random, categories));
+                    updated.setSupplier(pick(random, suppliers));
+                    inventory.updateProduct(updated);
+                }
+                case 2 -> {
+                    int delta = random.nextInt(21) - 10;
+                    if (inventory.getProductById(id).getQuantity() + delta >= 0) {
+                        inventory.adjustQuantity(id, delta);
+                    }
+                }
+                default -> {
+                    inventory.deleteProduct(id);
+                    ids.remove(Integer.valueOf(id));
+                }
+            }
+        }
+
+        ProductColumns columns = inventory.getColumns();
+        assertEquals(recount(inventory, Product::getCategory, Category::getId), cents(columns.valueByCategory()));
+        assertEquals(recount(inventory, Product::getSupplier, Supplier::getId), cents(columns.valueBySupplier()));
+    }
+
+    // Un produit sur cinq sans catégorie ni fournisseur
+    private static <T> T pick(Random random, List<T> values) {
+        return random.nextInt(5) == 0 ? null : values.get(random.nextInt(values.size()));
+    }
+
+    private static <G> Map<Integer, Long> recount(Inventory inventory, Function<Product, G> group,
+                                                  Function<G, Integer> groupId) {
+        Map<Integer, Long> cents = new TreeMap<>();
+        inventory.forEachProduct(product -> {
+            G value = group.apply(product);
+            if (value != null) {
+                cents.merge(groupId.apply(value), Math.round(product.getPrice() * 100) * product.getQuantity(), Long::sum);
+            }
+        });
+        return cents;
+    }
+
+    private static Map<Integer, Long> cents(Map<Integer, Double> values) {
+        Map<Integer, Long> cents = new TreeMap<>();
+        values.forEach((id, value) -> cents.put(id, Math.round(value * 100)));
+        return cents;
+    }
+}
@@ -0,0 +1,118 @@
+package Models;
+
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Mémoire occupée par produit : disposition d'origine (chaînes, LocalDate, liste sans index)
+// comme référence, produits seuls, puis inventaire complet (index et dictionnaires compris).
+// Deux catalogues : descriptions répétées (cas courant) et descriptions toutes distinctes
+// (aucun partage possible, le dictionnaire ne doit pas coûter plus qu'il ne rapporte).
+// Les chaînes répétées sont des instances distinctes, comme à la lecture d'un CSV.
+// Lancement : java -cp target/classes:target/test-classes Models.ProductFootprintBenchmark [produits]
+public class ProductFootprintBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        measure("Descriptions répétées", productCount, false);
+        measure("Descriptions distinctes", productCount, true);
+    }
+
+    private static void measure(String label, int productCount, boolean distinctDescriptions) throws InterruptedException {
+        Category category = new Category(1, "Catégorie", "");
+        Supplier supplier = new Supplier(1, "Fournisseur", "", "", "", "");
+        System.out.println(label + " (" + productCount + " produits)");
+
+        long base = usedMemory();
+        Random random = new Random(1);
+        List<LegacyProduct> legacy = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            legacy.add(new LegacyProduct(product(i, random, category, supplier, distinctDescriptions)));
+        }
+        double legacyBytes = (usedMemory() - base) / (double) productCount;
+        Reference.reachabilityFence(legacy); // compilée, la méthode pourrait libérer la liste avant la mesure
+        System.out.printf("  Disposition d'origine : %.1f octets/produit%n", legacyBytes);
+        legacy = null;
+
+        base = usedMemory();
+        random = new Random(1);
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products.add(product(i, random, category, supplier, distinctDescriptions));
+        }
+        double productBytes = (usedMemory() - base) / (double) productCount;
+        Reference.reachabilityFence(products);
+        System.out.printf("  Produits seuls : %.1f octets/produit%n", productBytes);
+        products = null;
+
+        base = usedMemory();
+        random = new Random(1);
+        Inventory inventory = Inventory.createEmpty();
+        for (int i = 0; i < productCount; i++) {
+            inventory.addProduct(product(i, random, category, supplier, distinctDescriptions));
+        }
+        double inventoryBytes = (usedMemory() - base) / (double) productCount;
+        Reference.reachabilityFence(inventory);
+        System.out.printf("  Inventaire : %.1f octets/produit (%d chaînes partagées), %.0f %% de moins que l'origine%n",
+                inventoryBytes, inventory.getSharedStringCount(), 100 * (1 - inventoryBytes / legacyBytes));
+
+        // Vérifie les index
+        Product bySku = inventory.getProductBySku("SKU-" + (1_000_000 + productCount / 2));
+        System.out.println("  " + inventory.getProductCount() + " produits, " + bySku.getName()
+                + ", " + inventory.getProductById(6).getLocation());
+    }
+
+    private static Product product(int i, Random random, Category category, Supplier supplier,
+                                   boolean distinctDescriptions) {
+        String description = distinctDescriptions
+                ? "Article de qualité pour l'équipe, référence fournisseur " + (7_000_000 + i)
+                : "Article de qualité pour l'équipe, modèle " + (i % 40);
+        Product product = new Product(0, new String("Produit " + i), new String(description),
+                1 + random.nextInt(50000) / 100.0, random.nextInt(100), 10, category, supplier,
+                new String("SKU-" + (1_000_000 + i)));
+        product.setLocation(new String("Allée " + (i % 150) + "-" + (i % 7)));
+        product.setExpirationDate(LocalDate.of(2026, 1, 1).plusDays(i % 700));
+        return product;
+    }
+
+    // Champs du Product d'origine : chaque produit garde ses propres chaînes et sa LocalDate
+    private static class LegacyProduct implements Serializable {
+        private final int id;
+        private final String name;
+        private final String description;
+        private final double price;
+        private final int quantity;
+        private final int minStockLevel;
+        private final Category category;
+        private final Supplier supplier;
+        private final String sku;
+        private final LocalDate expirationDate;
+        private final String location;
+
+        LegacyProduct(Product source) {
+            id = source.getId();
+            name = source.getName();
+            description = source.getDescription();
+            price = source.getPrice();
+            quantity = source.getQuantity();
+            minStockLevel = source.getMinStockLevel();
+            category = source.getCategory();
+            supplier = source.getSupplier();
+            sku = source.getSku();
+            expirationDate = source.getExpirationDate();
+            location = source.getLocation();
+        }
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package Models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Dictionnaires de chaînes par inventaire : partage entre produits, libération avec le
+// dernier produit, aucun partage entre inventaires
+class StringPoolTest {
+
+    @Test
+    void countsReferencesThroughRandomChurn() {
+        StringPool pool = new StringPool();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 200_000; i++) {
+            String value = "valeur " + random.nextInt(3_000);
+            if (random.nextInt(3) > 0 || !expected.containsKey(value)) {
+                String shared = pool.acquire(new String(value));
+                if (expected.containsKey(value)) {
+                    assertSame(pool.acquire(value), shared);
+                    pool.release(value);
+                }
+                expected.merge(value, 1, Integer::sum);
+            } else {
+                pool.release(value);
+                expected.computeIfPresent(value, (k, n) -> n == 1 ? null : n - 1);
+            }
+        }
+        assertEquals(expected.size(), pool.size());
+        expected.forEach((value, count) -> {
+            for (int i = 0; i < count; i++) {
+                pool.release(value);
+            }
+        });
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void inventorySharesStringsUntilLastProductLeaves() {
+        Inventory inventory = Inventory.createEmpty();
+        Product first = product("A-1", new String("Vis inox"), new String("Allée 3"));
+        Product second = product("A-2", new String("Vis inox"), new String("Allée 3"));
+        inventory.addProduct(first);
+        inventory.addProduct(second);
+        assertSame(first.getDescription(), second.getDescription());
+        assertSame(first.getLocation(), second.getLocation());
+        assertEquals(2, inventory.getSharedStringCount());
+
+        // Un autre inventaire garde ses propres instances
+        Inventory other = Inventory.createEmpty();
+        Product elsewhere = product("A-1", new String("Vis inox"), null);
+        other.addProduct(elsewhere);
+        assertNotSame(first.getDescription(), elsewhere.getDescription());
+
+        Product renamed = second.copy();
+        renamed.setDescription("Vis zinguée");
+        inventory.updateProduct(renamed);
+        assertEquals(3, inventory.getSharedStringCount());
+
+        inventory.deleteProduct(first.getId());
+        assertEquals(2, inventory.getSharedStringCount());
+        inventory.deleteProduct(second.getId());
+        assertEquals(0, inventory.getSharedStringCount());
+    }
+
+    private static Product product(String sku, String description, String location) {
+        Product product = new Product(0, "Vis", description, 0.1, 100, 10, null, null, sku);
+        product.setLocation(location);
+        return product;
+    }
+}
@@ -0,0 +1,102 @@
+package Services;
+
+import Models.Category;
+import Models.Inventory;
+import Models.Product;
+import Models.Supplier;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Export par CsvReportSink (CsvWriter) puis import : champs entre guillemets contenant le
+// séparateur, des guillemets ou des sauts de ligne, et erreurs relevées ligne par ligne
+class CsvImportServiceTest {
+
+    @Test
+    void importReadsBackExportedProducts() throws IOException {
+        InventoryService source = serviceWithReferences();
+        Category tools = source.getAllCategories().get(0);
+        Supplier supplier = source.getAllSuppliers().get(0);
+        source.addProduct(new Product(0, "Clé; 13 mm", "Ligne 1\nLigne 2 \"pro\"", 12.5, 3, 1, tools, supplier, "CLE-13"));
+        source.addProduct(new Product(0, "Marteau \"Pro\"", null, 19.99, 0, 2, null, supplier, "MAR-1"));
+        source.addProduct(new Product(0, "Scie", "a;b\r\nc;\"d\"", 0.1, 40, 0, tools, null, "SCI;1"));
+        source.addProduct(new Product(0, "Ruban adhésif", "", 1000.005, 7, 5, null, null, "RUB-1"));
+
+        Path file = Files.createTempFile("export", ".csv");
+        new FileService().exportToCSV(source.getInventory(), file.toString());
+
+        InventoryService target = serviceWithReferences();
+        CsvImportService.ImportResult result = new CsvImportService(target).importFromCSV(file.toString());
+
+        assertEquals(List.of(), result.getErrors());
+        assertEquals(4, result.getImportedCount());
+        assertEquals(describe(source), describe(target));
+    }
+
+    @Test
+    void invalidLinesAreReportedWithoutStoppingImport() throws IOException {
+        InventoryService source = serviceWithReferences();
+        source.addProduct(new Product(0, "Perceuse", "Sur\ndeux lignes", 89.9, 4, 1,
+                source.getAllCategories().get(0), null, "PER-1"));
+        Path file = Files.createTempFile("export", ".csv");
+        new FileService().exportToCSV(source.getInventory(), file.toString());
+
+        // En-tête sur une ligne, produit sur deux : les lignes ajoutées commencent à la 4e
+        int firstAppended = (int) Files.readString(file, StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count() + 1;
+        assertEquals(4, firstAppended);
+        Files.writeString(file, String.join("\n",
+                "9;Sans prix;;abc;1;1;N/A;N/A;X-1;0,00",
+                "9;Inconnue;;1,00;1;1;Absente;N/A;X-2;1,00",
+                "9;Trop court;;1,00;1;1",
+                "9;Décalé;a;b;1,00;1;1;N/A;N/A;X-3;1,00",
+                "9;Sans total;;2,50;4;1;N/A;N/A;X-4",
+                "9;\"Guillemets; et\nsaut\";;2,50;4;1;N/A;N/A;X-5;10,00",
+                "9;Doublon;;1,00;1;1;N/A;N/A;PER-1;1,00") + "\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        InventoryService target = serviceWithReferences();
+        CsvImportService.ImportResult result = new CsvImportService(target).importFromCSV(file.toString());
+
+        List<Integer> lines = result.getErrors().stream().map(CsvImportService.ImportError::getLine)
+                .collect(Collectors.toList());
+        int l = firstAppended;
+        assertEquals(List.of(l, l + 1, l + 2, l + 3, l + 7), lines);
+        assertTrue(result.getErrors().get(0).getMessage().contains("Prix invalide"));
+        assertTrue(result.getErrors().get(1).getMessage().contains("Catégorie inconnue"));
+        assertTrue(result.getErrors().get(2).getMessage().startsWith("6 champ(s)"));
+        assertTrue(result.getErrors().get(3).getMessage().startsWith("11 champ(s)"));
+        assertEquals(3, result.getImportedCount());
+        assertEquals(10.0, target.getProductBySku("X-4").getTotalValue(), 1e-9);
+        assertEquals("Guillemets; et\nsaut", target.getProductBySku("X-5").getName());
+    }
+
+    private static InventoryService serviceWithReferences() {
+        InventoryService service = new InventoryService(Inventory.createEmpty());
+        service.addCategory(new Category(0, "Outillage; main", ""));
+        service.addSupplier(new Supplier(0, "Dupont \"&\" Fils", "", "", "", ""));
+        return service;
+    }
+
+    private static List<String> describe(InventoryService service) {
+        List<String> rows = new ArrayList<>();
+        for (Product p : service.getAllProducts()) {
+            rows.add(p.getName() + "|" + Objects.toString(p.getDescription(), "") + "|"
+                    + Math.round(p.getPrice() * 100) + "|" + p.getQuantity() + "|" + p.getMinStockLevel() + "|"
+                    + (p.getCategory() != null ? p.getCategory().getName() : null) + "|"
+                    + (p.getSupplier() != null ? p.getSupplier().getName() : null) + "|" + p.getSku());
+        }
+        rows.sort(null);
+        return rows;
+    }
+}
@@ -0,0 +1,172 @@
+package Services;
+
+import Models.Category;
+import Models.Inventory;
+import Models.InventoryListener;
+import Models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reprise depuis le journal : instantané + segments, fin de segment tronquée, compaction
+class InventoryJournalTest {
+
+    @Test
+    void recoversEveryMutation() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        InventoryService service = InventoryService.openDurable(directory, 10, 3600);
+        mutate(service, "A");
+        List<String> expected = describe(service.getInventory());
+        service.close();
+
+        assertEquals(expected, describe(InventoryJournal.recover(directory, Inventory.createEmpty())));
+    }
+
+    @Test
+    void ignoresTruncatedRecordAtEndOfSegment() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        InventoryService service = InventoryService.openDurable(directory, 10, 3600);
+        mutate(service, "A");
+        List<String> beforeLastMutation = describe(service.getInventory());
+        service.adjustQuantity(service.getProductBySku("A-3").getId(), 7);
+        service.close();
+
+        // Panne pendant l'écriture du dernier enregistrement : son CRC est incomplet
+        try (FileChannel channel = FileChannel.open(lastSegment(directory), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        assertEquals(beforeLastMutation, describe(InventoryJournal.recover(directory, Inventory.createEmpty())));
+    }
+
+    @Test
+    void ignoresHeaderWithoutPayloadAtEndOfSegment() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        InventoryService service = InventoryService.openDurable(directory, 10, 3600);
+        mutate(service, "A");
+        List<String> expected = describe(service.getInventory());
+        service.close();
+
+        // En-tête annonçant 100 octets dont seuls deux ont été écrits
+        try (FileChannel channel = FileChannel.open(lastSegment(directory), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{InventoryJournal.RECORD_STOCK_MOVED, 0, 0, 0, 100, 1, 2}));
+        }
+        assertEquals(expected, describe(InventoryJournal.recover(directory, Inventory.createEmpty())));
+    }
+
+    @Test
+    void compactionReplacesOlderSegments() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        InventoryService service = InventoryService.openDurable(directory, 10, 3600);
+        mutate(service, "A");
+        service.compactJournal();
+        mutate(service, "B");
+        service.compactJournal();
+        mutate(service, "C");
+        List<String> expected = describe(service.getInventory());
+        service.close();
+
+        long snapshotGeneration = InventorySnapshotFormat.readJournalGeneration(
+                directory.resolve(InventoryJournal.SNAPSHOT_FILE));
+        for (Path segment : segments(directory)) {
+            assertTrue(generation(segment) >= snapshotGeneration, "segment non supprimé : " + segment);
+        }
+        assertEquals(expected, describe(InventoryJournal.recover(directory, Inventory.createEmpty())));
+
+        // Nouvelle ouverture sur le même répertoire : les mutations suivantes s'ajoutent
+        InventoryService reopened = InventoryService.openDurable(directory, 10, 3600);
+        assertEquals(expected, describe(reopened.getInventory()));
+        mutate(reopened, "D");
+        expected = describe(reopened.getInventory());
+        reopened.close();
+        assertEquals(expected, describe(InventoryJournal.recover(directory, Inventory.createEmpty())));
+    }
+
+    // Un écouteur en échec (journal qui ne peut plus écrire par exemple) n'empêche pas les
+    // suivants, dont les index du service, d'être prévenus ; l'échec remonte à l'appelant
+    @Test
+    void failingListenerDoesNotStarveOtherListeners() {
+        InventoryService service = new InventoryService(Inventory.createEmpty());
+        service.addChangeListener(new InventoryListener() {
+            @Override
+            public void productAdded(Product product) {
+                throw new IllegalStateException("écouteur en échec");
+            }
+        });
+        assertTrue(service.search("perceuse", 10).isEmpty()); // attache l'index de recherche
+
+        Product product = new Product(0, "Perceuse sans fil", "", 89.0, 3, 5, null, null, "PER-1");
+        assertThrows(IllegalStateException.class, () -> service.addProduct(product));
+
+        assertNotNull(service.getProductBySku("PER-1"));
+        assertEquals(1, service.search("perceuse", 10).size());
+        assertEquals(1, service.getLowStockCount());
+    }
+
+    private static void mutate(InventoryService service, String prefix) {
+        Category category = new Category(0, "Catégorie " + prefix, "");
+        service.addCategory(category);
+        List<Product> added = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product(0, "Produit " + prefix + i, "Description " + i, 10 + i, 20, 5,
+                    category, null, prefix + "-" + i);
+            service.addProduct(product);
+            added.add(product);
+        }
+        Product renamed = service.getProductById(added.get(1).getId()).copy();
+        renamed.setName("Renommé " + prefix);
+        service.updateProduct(renamed);
+        Product resku = service.getProductById(added.get(2).getId()).copy();
+        resku.setSku(prefix + "-2bis");
+        service.updateProduct(resku);
+        service.adjustQuantity(added.get(3).getId(), -18);
+        service.reserve(added.get(4).getId(), 4);
+        service.release(added.get(4).getId(), 1);
+        service.deleteProduct(added.get(0).getId());
+    }
+
+    private static List<String> describe(Inventory inventory) {
+        List<String> rows = new ArrayList<>();
+        inventory.forEachProduct(product -> rows.add(product.getId() + "|" + product.getName() + "|"
+                + product.getSku() + "|" + product.getPrice() + "|" + product.getQuantity() + "|"
+                + product.getReservedQuantity() + "|" + product.getMinStockLevel() + "|"
+                + (product.getCategory() != null ? product.getCategory().getName() : "")));
+        inventory.getCategories().forEach(category -> rows.add("catégorie " + category.getId() + "|" + category.getName()));
+        rows.sort(null);
+        rows.add("valeur " + Math.round(inventory.getTotalInventoryValue() * 100));
+        rows.add("stock faible " + inventory.getLowStockCount());
+        return rows;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("journal-\\d+\\.log"))
+                    .sorted(Comparator.comparingLong(InventoryJournalTest::generation))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static Path lastSegment(Path directory) throws IOException {
+        List<Path> segments = segments(directory);
+        return segments.get(segments.size() - 1);
+    }
+
+    private static long generation(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+}
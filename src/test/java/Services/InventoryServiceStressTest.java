@@ -0,0 +1,219 @@
+package Services;
+
+import Models.Category;
+import Models.Inventory;
+import Models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Mutations concurrentes (ajout, modification, mouvements de stock, suppression), puis les
+// agrégats incrémentaux et les index sont comparés à un recomptage complet
+class InventoryServiceStressTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int INITIAL_PRODUCTS = 2_000;
+    private static final int SNAPSHOT_THREADS = 4;
+
+    @Test
+    void aggregatesMatchRecountAfterConcurrentMutations() throws Exception {
+        run(new InventoryService(Inventory.createEmpty()), 1);
+    }
+
+    @Test
+    void aggregatesMatchRecountAfterConcurrentMutationsOffHeap() throws Exception {
+        InventoryService service = new InventoryService(Inventory.createEmpty());
+        service.enableOffHeapStore();
+        run(service, 2);
+    }
+
+    // Réservations et libérations pendant les copies : quantité + réservé reste constant
+    // dans chaque produit copié, et le total de la copie est celui d'un même instant
+    @Test
+    void snapshotIsConsistentDuringStockMoves() throws Exception {
+        snapshotDuringStockMoves(new InventoryService(Inventory.createEmpty()));
+    }
+
+    @Test
+    void snapshotIsConsistentDuringStockMovesOffHeap() throws Exception {
+        InventoryService service = new InventoryService(Inventory.createEmpty());
+        service.enableOffHeapStore();
+        snapshotDuringStockMoves(service);
+    }
+
+    private static void snapshotDuringStockMoves(InventoryService service) throws Exception {
+        int products = 256;
+        for (int i = 0; i < products; i++) {
+            service.addProduct(new Product(0, "Produit " + i, "", 2.0, 100, 5, null, null, "SNAP-" + i));
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(SNAPSHOT_THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < SNAPSHOT_THREADS; t++) {
+                Random random = new Random(t);
+                workers.add(pool.submit(() -> {
+                    while (!stop.get()) {
+                        // Au plus SNAPSHOT_THREADS * 5 unités réservées à la fois : le stock suffit toujours
+                        int id = 1 + random.nextInt(products);
+                        int count = 1 + random.nextInt(5);
+                        service.reserve(id, count);
+                        service.release(id, count);
+                    }
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                Inventory snapshot = service.snapshot();
+                int reserved = 0;
+                for (Product product : snapshot.getProducts()) {
+                    assertEquals(100, product.getQuantity() + product.getReservedQuantity(),
+                            "produit " + product.getId() + " copié entre deux étapes d'un mouvement");
+                    reserved += product.getReservedQuantity();
+                }
+                assertEquals(2.0 * (100 * products - reserved), snapshot.getTotalInventoryValue(), 1e-6);
+                if (service.getInventory().getOffHeapStore() != null) {
+                    assertNotNull(snapshot.getOffHeapStore(), "copie repassée sur le tas");
+                }
+            }
+            stop.set(true);
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            stop.set(true);
+            pool.shutdownNow();
+        }
+    }
+
+    private static void run(InventoryService service, long seed) throws Exception {
+        Category category = new Category(1, "Fournitures", "");
+        service.addCategory(category);
+        Set<String> skus = ConcurrentHashMap.newKeySet();
+        Random random = new Random(seed);
+        for (int i = 0; i < INITIAL_PRODUCTS; i++) {
+            String sku = "INIT-" + i;
+            skus.add(sku);
+            service.addProduct(new Product(0, "Produit " + i, "Description " + (i % 20),
+                    1 + random.nextInt(10_000) / 100.0, random.nextInt(50), random.nextInt(20), category, null, sku));
+        }
+
+        AtomicInteger maxId = new AtomicInteger(INITIAL_PRODUCTS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> mutate(service, new Random(seed * 100 + thread), thread, maxId, skus)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(); // relance les erreurs inattendues des threads
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        checkAgainstRecount(service, skus);
+    }
+
+    private static void mutate(InventoryService service, Random random, int thread, AtomicInteger maxId, Set<String> skus) {
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int id = 1 + random.nextInt(maxId.get());
+            try {
+                switch (random.nextInt(10)) {
+                    case 0 -> {
+                        String sku = "T" + thread + "-" + i;
+                        skus.add(sku);
+                        Product product = new Product(0, "Ajout " + thread + "-" + i, "Ajouté en parallèle",
+                                1 + random.nextInt(10_000) / 100.0, random.nextInt(50), random.nextInt(20), null, null, sku);
+                        service.addProduct(product);
+                        maxId.accumulateAndGet(product.getId(), Math::max);
+                    }
+                    case 1, 2 -> {
+                        Product product = service.getProductById(id);
+                        if (product == null) {
+                            break;
+                        }
+                        Product updated = product.copy();
+                        updated.setPrice(1 + random.nextInt(10_000) / 100.0);
+                        updated.setMinStockLevel(random.nextInt(20));
+                        updated.setName(product.getName() + "*");
+                        if (random.nextInt(4) == 0) {
+                            // Changement de SKU : passe par la mise à jour structurelle
+                            String sku = "U" + thread + "-" + i;
+                            skus.add(sku);
+                            updated.setSku(sku);
+                        }
+                        service.updateProduct(updated);
+                    }
+                    case 3, 4, 5 -> service.adjustQuantity(id, random.nextInt(21) - 10);
+                    case 6, 7 -> {
+                        service.reserve(id, 1 + random.nextInt(3));
+                        service.release(id, 1);
+                    }
+                    case 8 -> service.release(id, 1);
+                    default -> {
+                        if (random.nextInt(4) == 0) {
+                            service.deleteProduct(id);
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                // Attendu : produit supprimé entre-temps, stock ou réservation insuffisants
+            }
+        }
+    }
+
+    private static void checkAgainstRecount(InventoryService service, Set<String> skus) {
+        List<Product> products = service.getAllProducts();
+        double totalValue = 0;
+        int lowStock = 0;
+        Set<Integer> ids = new HashSet<>();
+        for (Product product : products) {
+            totalValue += product.getPrice() * product.getQuantity();
+            if (product.isLowStock()) {
+                lowStock++;
+            }
+            assertTrue(product.getQuantity() >= 0, "stock négatif pour " + product.getId());
+            assertTrue(ids.add(product.getId()), "ID en double : " + product.getId());
+
+            Product byId = service.getProductById(product.getId());
+            assertNotNull(byId, "ID introuvable : " + product.getId());
+            assertEquals(product.getSku(), byId.getSku());
+            Product bySku = service.getProductBySku(product.getSku());
+            assertNotNull(bySku, "SKU introuvable : " + product.getSku());
+            assertEquals(product.getId(), bySku.getId());
+        }
+
+        assertEquals(totalValue, service.getTotalInventoryValue(), 1e-6 * Math.max(1, totalValue));
+        assertEquals(lowStock, service.getLowStockCount());
+        assertEquals(lowStock, service.getLowStockProducts().size());
+        assertEquals(products.size(), service.getTotalProductsCount());
+
+        // Les SKU remplacés ou supprimés ne doivent plus être indexés
+        int indexedSkus = 0;
+        for (String sku : skus) {
+            Product bySku = service.getProductBySku(sku);
+            if (bySku != null) {
+                assertEquals(sku, bySku.getSku());
+                assertTrue(ids.contains(bySku.getId()), "SKU " + sku + " indexé pour un produit supprimé");
+                indexedSkus++;
+            }
+        }
+        assertEquals(products.size(), indexedSkus);
+    }
+}
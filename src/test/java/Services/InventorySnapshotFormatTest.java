@@ -0,0 +1,154 @@
+package Services;
+
+import Models.Category;
+import Models.Inventory;
+import Models.Product;
+import Models.Supplier;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Aller-retour complet du format .inv, puis fichiers corrompus : chaque altération doit
+// donner une IOException, jamais une allocation démesurée ni une exception d'exécution
+class InventorySnapshotFormatTest {
+
+    private final InventorySnapshotFormat format = new InventorySnapshotFormat();
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        Inventory inventory = sampleInventory();
+        Path file = Files.createTempFile("inventaire", ".inv");
+        format.write(inventory, file, 42);
+
+        Inventory read = format.read(file);
+        assertEquals(describe(inventory), describe(read));
+        assertEquals(42L, InventorySnapshotFormat.readJournalGeneration(file));
+        assertEquals(inventory.getProductIdSequence().getLast(), read.getProductIdSequence().getLast());
+
+        Product bare = read.getProductBySku("NU-1");
+        assertNull(bare.getCategory());
+        assertNull(bare.getLocation());
+        assertNull(bare.getExpirationDate());
+    }
+
+    @Test
+    void rejectsBlockLongerThanFile() throws IOException {
+        byte[] bytes = validFile();
+        ByteBuffer.wrap(bytes).putInt(InventorySnapshotFormat.HEADER_SIZE + 1, Integer.MAX_VALUE - 8);
+        Path file = assertCorrupt(bytes);
+        assertThrows(IOException.class, () -> InventorySnapshotFormat.readJournalGeneration(file));
+    }
+
+    @Test
+    void rejectsNegativeBlockLength() throws IOException {
+        byte[] bytes = validFile();
+        ByteBuffer.wrap(bytes).putInt(InventorySnapshotFormat.HEADER_SIZE + 1, -5);
+        Path file = assertCorrupt(bytes);
+        assertThrows(IOException.class, () -> InventorySnapshotFormat.readJournalGeneration(file));
+    }
+
+    @Test
+    void rejectsFlippedByte() throws IOException {
+        byte[] bytes = validFile();
+        List<int[]> blocks = blocks(bytes);
+        int[] products = blocks.stream().filter(b -> bytes[b[0]] == InventorySnapshotFormat.BLOCK_PRODUCTS)
+                .findFirst().orElseThrow();
+        bytes[products[0] + InventorySnapshotFormat.BLOCK_HEADER_SIZE + 3] ^= 0x20;
+        assertCorrupt(bytes);
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        byte[] bytes = validFile();
+        for (int cut : new int[]{3, InventorySnapshotFormat.HEADER_SIZE + 2, bytes.length / 2, bytes.length - 1}) {
+            assertCorrupt(Arrays.copyOf(bytes, cut));
+        }
+    }
+
+    // Bloc de produits répété, CRC valide : IDs en double
+    @Test
+    void rejectsDuplicateProducts() throws IOException {
+        byte[] bytes = validFile();
+        int[] products = blocks(bytes).stream().filter(b -> bytes[b[0]] == InventorySnapshotFormat.BLOCK_PRODUCTS)
+                .findFirst().orElseThrow();
+        byte[] duplicated = new byte[bytes.length + products[1]];
+        int end = products[0] + products[1];
+        System.arraycopy(bytes, 0, duplicated, 0, end);
+        System.arraycopy(bytes, products[0], duplicated, end, products[1]);
+        System.arraycopy(bytes, end, duplicated, end + products[1], bytes.length - end);
+        assertCorrupt(duplicated);
+    }
+
+    private Path assertCorrupt(byte[] bytes) throws IOException {
+        Path file = Files.createTempFile("corrompu", ".inv");
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> format.read(file));
+        return file;
+    }
+
+    private byte[] validFile() throws IOException {
+        Path file = Files.createTempFile("inventaire", ".inv");
+        format.write(sampleInventory(), file, 7);
+        return Files.readAllBytes(file);
+    }
+
+    // Position et taille totale (en-tête et CRC compris) de chaque bloc
+    private static List<int[]> blocks(byte[] bytes) {
+        List<int[]> blocks = new ArrayList<>();
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        int position = InventorySnapshotFormat.HEADER_SIZE;
+        while (position < bytes.length) {
+            int size = InventorySnapshotFormat.BLOCK_HEADER_SIZE + in.getInt(position + 1) + 4;
+            blocks.add(new int[]{position, size});
+            position += size;
+        }
+        return blocks;
+    }
+
+    private static Inventory sampleInventory() {
+        Inventory inventory = Inventory.createEmpty();
+        Category tools = new Category(0, "Outillage", "Outils à main; électroportatif");
+        inventory.addCategory(tools);
+        inventory.addCategory(new Category(0, "Jardin", null));
+        Supplier supplier = new Supplier(0, "Dupont & Fils", "Jean \"JD\" Dupont", "0123456789", "jd@dupont.fr", "Lyon");
+        inventory.addSupplier(supplier);
+        for (int i = 0; i < 50; i++) {
+            Product product = new Product(0, "Produit " + i, "Description\nsur deux lignes " + (i % 3),
+                    i * 1.25, i * 3 - 10, 5, tools, supplier, "OUT-" + i);
+            product.setLocation("Allée " + (i % 4));
+            product.setReservedQuantity(i % 5);
+            product.setExpirationDate(LocalDate.of(2027, 1, 1).plusDays(i));
+            inventory.addProduct(product);
+        }
+        Product bare = new Product(0, "Sans catégorie", null, 0, 0, 0, null, null, "NU-1");
+        bare.setExpirationDate(null);
+        inventory.addProduct(bare);
+        inventory.deleteProduct(3);
+        return inventory;
+    }
+
+    private static List<String> describe(Inventory inventory) {
+        List<String> rows = new ArrayList<>();
+        inventory.forEachProduct(p -> rows.add(p.getId() + "|" + p.getName() + "|" + p.getDescription() + "|"
+                + p.getPrice() + "|" + p.getQuantity() + "|" + p.getReservedQuantity() + "|" + p.getMinStockLevel()
+                + "|" + (p.getCategory() != null ? p.getCategory().getId() : null)
+                + "|" + (p.getSupplier() != null ? p.getSupplier().getName() : null)
+                + "|" + p.getSku() + "|" + p.getExpirationDate() + "|" + p.getLocation()));
+        inventory.getCategories().forEach(c -> rows.add(c.getId() + "|" + c.getName() + "|" + c.getDescription()));
+        inventory.getSuppliers().forEach(s -> rows.add(s.getId() + "|" + s.getName() + "|" + s.getContactPerson()
+                + "|" + s.getPhone() + "|" + s.getEmail() + "|" + s.getAddress()));
+        rows.sort(null);
+        return rows;
+    }
+}
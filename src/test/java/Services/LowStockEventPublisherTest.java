@@ -0,0 +1,111 @@
+package Services;
+
+import Models.Inventory;
+import Models.InventoryListener;
+import Models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Chaque bascule de stock faible est remise une fois et dans l'ordre, même à un abonné lent
+class LowStockEventPublisherTest {
+
+    private static final int PRODUCTS = 8;
+    private static final int MOVES = 4_000;
+
+    @Test
+    void slowSubscriberReceivesEveryTransitionInOrder() throws Exception {
+        InventoryService service = new InventoryService(Inventory.createEmpty());
+        for (int i = 0; i < PRODUCTS; i++) {
+            service.addProduct(new Product(0, "Produit " + i, "", 1.0, 20, 10, null, null, "LOW-" + i));
+        }
+        // Bascules vues de façon synchrone par l'inventaire : la référence
+        AtomicInteger expected = new AtomicInteger();
+        service.addChangeListener(new InventoryListener() {
+            @Override
+            public void lowStockChanged(Product product, boolean lowStock) {
+                expected.incrementAndGet();
+            }
+        });
+        SlowSubscriber subscriber = new SlowSubscriber();
+        service.subscribeLowStock(subscriber);
+
+        // Chaque mouvement fait passer le produit d'un côté à l'autre du seuil
+        for (int i = 0; i < MOVES; i++) {
+            service.adjustQuantity(1 + i % PRODUCTS, (i / PRODUCTS) % 2 == 0 ? -15 : 15);
+        }
+        assertTrue(expected.get() >= MOVES, "bascules attendues : " + expected.get());
+        assertTrue(subscriber.received(expected.get(), 30, TimeUnit.SECONDS),
+                "reçu " + subscriber.count.get() + " sur " + expected.get());
+        service.close();
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+
+        assertEquals(expected.get(), subscriber.count.get());
+        for (List<Boolean> states : subscriber.statesById.values()) {
+            assertTrue(states.get(0));
+            for (int i = 1; i < states.size(); i++) {
+                assertNotEquals(states.get(i - 1), states.get(i), "bascules perdues ou dans le désordre");
+            }
+        }
+    }
+
+    // Réclame un événement à la fois, en s'endormant régulièrement : le tampon se remplit
+    private static class SlowSubscriber implements Flow.Subscriber<LowStockEvent> {
+        final Map<Integer, List<Boolean>> statesById = new ConcurrentHashMap<>();
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch completed = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(LowStockEvent event) {
+            statesById.computeIfAbsent(event.getProductId(), id -> new ArrayList<>()).add(event.isLowStock());
+            if (count.incrementAndGet() % 500 == 0) {
+                sleep(20);
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        boolean received(int total, long timeout, TimeUnit unit) {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (count.get() < total && System.nanoTime() < deadline) {
+                sleep(10);
+            }
+            return count.get() >= total;
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Services;
+
+import Models.Category;
+import Models.Inventory;
+import Models.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Mesure de InventoryService.query (index secondaires) face au parcours complet du catalogue.
+// Lancement : java -cp target/classes:target/test-classes Services.ProductQueryBenchmark [produits]
+public class ProductQueryBenchmark {
+
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) {
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(3);
+        Inventory inventory = Inventory.createEmpty();
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            Category category = new Category(0, "Catégorie " + i, "");
+            inventory.addCategory(category);
+            categories.add(category);
+        }
+        List<Models.Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Models.Supplier supplier = new Models.Supplier(0, "Fournisseur " + i, "", "", "", "");
+            inventory.addSupplier(supplier);
+            suppliers.add(supplier);
+        }
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product(0, "Produit " + i, "", 1 + random.nextInt(50000) / 100.0,
+                    random.nextInt(1000), 10, categories.get(random.nextInt(15)),
+                    suppliers.get(random.nextInt(50)), "SKU-" + i);
+            product.setLocation("A" + random.nextInt(200));
+            inventory.addProduct(product);
+        }
+        // IDs creux : un ID très grand ne doit pas dimensionner l'index
+        Product sparse = new Product(Integer.MAX_VALUE - 1, "Produit isolé", "", 10, 1, 10,
+                categories.get(3), suppliers.get(7), "SKU-ISOLE");
+        sparse.setLocation("A42");
+        inventory.addProduct(sparse);
+
+        InventoryService service = new InventoryService(inventory);
+        long start = System.nanoTime();
+        service.query(new ProductQuery().category(categories.get(0).getId())).count();
+        System.out.printf("Construction de l'index : %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+        int categoryId = categories.get(3).getId();
+        int supplierId = suppliers.get(7).getId();
+        Comparator<Product> byValue = Comparator.comparingDouble(Product::getTotalValue).reversed()
+                .thenComparingInt(Product::getId);
+        run(service, inventory, "catégorie + fournisseur + prix, top 100 par valeur",
+                () -> new ProductQuery().category(categoryId).supplier(supplierId).priceBetween(100, 200)
+                        .sortBy(byValue).page(0, 100));
+        run(service, inventory, "prix 10,00 à 10,50",
+                () -> new ProductQuery().priceBetween(10, 10.5));
+        run(service, inventory, "emplacement + quantité < 5",
+                () -> new ProductQuery().location("A42").quantityBetween(0, 4));
+        run(service, inventory, "catégorie, page 2 de 50",
+                () -> new ProductQuery().category(categoryId).page(50, 50));
+        run(service, inventory, "catégorie, top 20 par valeur",
+                () -> new ProductQuery().category(categoryId).sortBy(byValue).page(0, 20));
+        run(service, inventory, "sans critère, page 1 de 50",
+                () -> new ProductQuery().page(0, 50));
+    }
+
+    private static void run(InventoryService service, Inventory inventory, String label, Supplier<ProductQuery> query) {
+        List<Product> indexed = null;
+        for (int i = 0; i < 3; i++) {
+            indexed = service.query(query.get()).collect(Collectors.toList());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            indexed = service.query(query.get()).collect(Collectors.toList());
+        }
+        double indexMillis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        List<Product> scanned = null;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            scanned = scan(inventory, query.get());
+        }
+        double scanMillis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        System.out.printf("%-52s %7d lignes  index %9.3f ms  parcours %9.3f ms  identiques=%b%n",
+                label, indexed.size(), indexMillis, scanMillis, ids(indexed).equals(ids(scanned)));
+    }
+
+    // Même résultat que query, sans index : filtre, tri (ID à égalité) et page
+    private static List<Product> scan(Inventory inventory, ProductQuery query) {
+        Comparator<? super Product> order = query.getOrder();
+        Comparator<Product> total = order == null ? Comparator.comparingInt(Product::getId)
+                : (a, b) -> {
+                    int byOrder = order.compare(a, b);
+                    return byOrder != 0 ? byOrder : Integer.compare(a.getId(), b.getId());
+                };
+        Stream<Product> matches = inventory.getProducts().stream().filter(query::matches).sorted(total);
+        return matches.skip(query.getOffset()).limit(query.getLimit()).collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,110 @@
+package Services;
+
+import Models.Category;
+import Models.Product;
+import Models.Supplier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// Ajouts, modifications (sur place ou par copie), mouvements de stock et suppressions
+// aléatoires : chaque sélection de l'index est comparée au filtrage de tous les produits.
+// Les effectifs font passer les ensembles d'IDs par le tableau, les blocs et les bitmaps.
+class ProductQueryIndexTest {
+
+    private static final int PRODUCTS = 15_000;
+
+    private final Random random = new Random(7);
+    private final List<Category> categories = List.of(
+            new Category(1, "Outillage", ""), new Category(2, "Jardin", ""), new Category(3, "Peinture", ""));
+    private final List<Supplier> suppliers = List.of(
+            new Supplier(1, "Fournisseur A", "", "", "", ""), new Supplier(2, "Fournisseur B", "", "", "", ""));
+    private final Map<Integer, Product> products = new TreeMap<>();
+    private final ProductQueryIndex index = new ProductQueryIndex();
+
+    @Test
+    void selectionMatchesFullScanThroughMutations() {
+        for (int id = 1; id <= PRODUCTS; id++) {
+            add(id);
+        }
+        // IDs éloignés : d'autres blocs, et un ID isolé très grand
+        for (int id = 200_000; id < 205_000; id++) {
+            add(id);
+        }
+        add(Integer.MAX_VALUE - 1);
+        checkQueries();
+
+        List<Integer> ids = new ArrayList<>(products.keySet());
+        for (int i = 0; i < 40_000; i++) {
+            int id = ids.get(random.nextInt(ids.size()));
+            Product product = products.get(id);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    int delta = random.nextInt(21) - 10;
+                    product.setQuantity(product.getQuantity() + delta);
+                    index.stockMoved(product, delta, 0);
+                }
+                case 1 -> {
+                    // Modification sur place : l'index garde les anciennes valeurs
+                    product.setPrice(random.nextInt(500) / 100.0);
+                    product.setCategory(categories.get(random.nextInt(categories.size())));
+                    index.productUpdated(product, product);
+                }
+                case 2 -> {
+                    Product updated = product.copy();
+                    updated.setLocation(random.nextInt(3) == 0 ? null : "A" + random.nextInt(20));
+                    updated.setSupplier(random.nextInt(3) == 0 ? null : suppliers.get(random.nextInt(2)));
+                    updated.setQuantity(random.nextInt(50));
+                    products.put(id, updated);
+                    index.productUpdated(product, updated);
+                }
+                default -> {
+                    product.setQuantity(product.getQuantity() + 1);
+                    index.stockMoved(product, 1, 0);
+                }
+            }
+        }
+        checkQueries();
+
+        // Suppression de la plupart des produits : les ensembles repassent en tableau
+        for (int id : ids) {
+            if (random.nextInt(10) != 0) {
+                index.productRemoved(products.remove(id));
+            }
+        }
+        checkQueries();
+    }
+
+    private void add(int id) {
+        Product product = new Product(id, "Produit " + id, "", random.nextInt(500) / 100.0, random.nextInt(50), 5,
+                categories.get(random.nextInt(categories.size())), suppliers.get(random.nextInt(2)), "SKU-" + id);
+        product.setLocation("A" + random.nextInt(20));
+        products.put(id, product);
+        index.productAdded(product);
+    }
+
+    private void checkQueries() {
+        check(new ProductQuery());
+        for (Category category : categories) {
+            check(new ProductQuery().category(category.getId()));
+            check(new ProductQuery().category(category.getId()).supplier(1).quantityBetween(10, 30));
+        }
+        check(new ProductQuery().supplier(2));
+        check(new ProductQuery().location("A7"));
+        check(new ProductQuery().priceBetween(1, 1.5));
+        check(new ProductQuery().quantityBetween(0, 3));
+        check(new ProductQuery().quantityBetween(40, 1000).location("A3"));
+        check(new ProductQuery().priceBetween(2, 4).quantityBetween(-100, 20).category(2));
+    }
+
+    private void check(ProductQuery query) {
+        int[] expected = products.values().stream().filter(query::matches).mapToInt(Product::getId).toArray();
+        assertArrayEquals(expected, index.select(query));
+    }
+}
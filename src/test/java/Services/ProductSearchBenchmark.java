@@ -0,0 +1,96 @@
+package Services;
+
+import Models.Inventory;
+import Models.Product;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Mesure de InventoryService.search (index inversé) face à un parcours du catalogue qui
+// cherche chaque terme dans le nom, la description et le SKU. Objectif : moins d'une
+// milliseconde par requête sur un million de produits.
+// Lancement : java -cp target/classes:target/test-classes Services.ProductSearchBenchmark [produits]
+public class ProductSearchBenchmark {
+
+    private static final int ITERATIONS = 200;
+    private static final int LIMIT = 20;
+
+    private static final String[] KINDS = {"Perceuse", "Lampe", "Détecteur", "Tournevis", "Scie",
+            "Marteau", "Clé", "Ponceuse", "Ruban", "Demi-lune", "Laine", "Pince", "Niveau", "Lame"};
+    private static final String[] QUALIFIERS = {"sans fil", "de chantier", "à LED", "cruciforme",
+            "sauteuse", "de menuisier", "à molette", "orbitale", "adhésif", "de verre", "coupante",
+            "laser", "de rechange", "isolée"};
+    private static final String[] BRANDS = {"Bosch", "Makita", "Stanley", "Facom", "Dewalt",
+            "Ryobi", "Legrand", "Philips", "Tesa", "Lapeyre"};
+
+    public static void main(String[] args) {
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(11);
+        Inventory inventory = Inventory.createEmpty();
+        for (int i = 0; i < productCount; i++) {
+            String name = KINDS[random.nextInt(KINDS.length)] + " " + QUALIFIERS[random.nextInt(QUALIFIERS.length)]
+                    + " " + BRANDS[random.nextInt(BRANDS.length)] + " " + (100 + random.nextInt(900));
+            inventory.addProduct(new Product(0, name, "Modèle " + random.nextInt(5000) + " pour la maison",
+                    1 + random.nextInt(50000) / 100.0, random.nextInt(100), 10, null, null,
+                    String.format(Locale.ROOT, "REF-%07d", i)));
+        }
+
+        InventoryService service = new InventoryService(inventory);
+        long start = System.nanoTime();
+        service.search("perceuse", 1);
+        System.out.printf("Construction de l'index : %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+        run(service, inventory, "perceuse");
+        run(service, inventory, "perceuse bosch");
+        run(service, inventory, "scie sauteuse mak");
+        run(service, inventory, "lampe led philips 4");
+        run(service, inventory, "ponceuse orbitale ryobi 512");
+        // Mot vide en cours de saisie : préfixe de "lampe", "laser", "laine"...
+        run(service, inventory, "la");
+        run(service, inventory, "cle de");
+        run(service, inventory, "REF-0000042");
+        run(service, inventory, "REF-00001");
+        run(service, inventory, "introuvable");
+    }
+
+    private static void run(InventoryService service, Inventory inventory, String query) {
+        List<Product> results = null;
+        for (int i = 0; i < 20; i++) {
+            results = service.search(query, LIMIT);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            results = service.search(query, LIMIT);
+        }
+        double indexMillis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        start = System.nanoTime();
+        int scanned = scan(inventory, query);
+        double scanMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%-30s %3d résultats  index %8.3f ms%s  parcours %9.3f ms (%d correspondances)%n",
+                '"' + query + '"', results.size(), indexMillis, indexMillis < 1 ? " " : "!",
+                scanMillis, scanned);
+    }
+
+    // Référence sans index : chaque terme de la requête (le dernier en début de mot) doit
+    // apparaître dans le nom, la description ou le SKU
+    private static int scan(Inventory inventory, String query) {
+        List<String> terms = ProductSearchIndex.tokenize(query, true);
+        int[] count = new int[1];
+        inventory.forEachProduct(product -> {
+            List<String> words = ProductSearchIndex.tokenize(
+                    product.getName() + " " + product.getDescription() + " " + product.getSku(), true);
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                boolean last = t == terms.size() - 1;
+                if (words.stream().noneMatch(word -> last ? word.startsWith(term) : word.equals(term))) {
+                    return;
+                }
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,77 @@
+package Services;
+
+import Models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Mots vides en cours de saisie, et résultats de l'index comparés au filtrage de tous les
+// produits (chaque terme présent, le dernier en début de mot)
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final List<Product> products = new ArrayList<>();
+
+    @Test
+    void stopWordBeingTypedIsAPrefix() {
+        add("Lampe de chantier");
+        add("Laine de verre");
+        add("Détecteur de fumée");
+        add("Perceuse sans fil");
+
+        assertEquals(2, index.search("la", 10).length);
+        assertEquals(1, index.search("de", 10).length);
+        assertEquals(1, index.search("lampe de", 10).length);
+        // Mot vide terminé, ou sans mot qui le prolonge : ignoré
+        assertEquals(1, index.search("perceuse de ", 10).length);
+        assertEquals(1, index.search("perceuse de", 10).length);
+        assertEquals(0, index.search("de ", 10).length);
+    }
+
+    @Test
+    void resultsMatchFullScan() {
+        String[] words = {"perceuse", "lampe", "scie", "led", "bosch", "makita", "sans", "fil", "chantier"};
+        Random random = new Random(3);
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int w = 0; w < 4; w++) {
+                name.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            add(name.append(random.nextInt(1000)).toString());
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + random.nextInt(100);
+            int[] found = index.search(query, Integer.MAX_VALUE);
+            Arrays.sort(found);
+            assertArrayEquals(scan(query), found, query);
+        }
+    }
+
+    private void add(String name) {
+        Product product = new Product(products.size() + 1, name, "", 1, 1, 0, null, null, "S" + products.size());
+        products.add(product);
+        index.productAdded(product);
+    }
+
+    private int[] scan(String query) {
+        List<String> terms = ProductSearchIndex.tokenize(query, true);
+        return products.stream().filter(product -> {
+            List<String> words = ProductSearchIndex.tokenize(product.getName());
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                boolean last = t == terms.size() - 1;
+                if (words.stream().noneMatch(word -> last ? word.startsWith(term) : word.equals(term))) {
+                    return false;
+                }
+            }
+            return true;
+        }).mapToInt(Product::getId).toArray();
+    }
+}
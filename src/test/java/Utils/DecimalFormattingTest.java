@@ -0,0 +1,73 @@
+package Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// DisplayStrings.amount et CsvWriter.decimalField doivent produire exactement String.format("%.2f")
+class DecimalFormattingTest {
+
+    private static final double[] EDGE_VALUES = {
+            1.005, 0.285, 1.255, -1.005, -0.285, -1.255, 2.675, 1.115, 10.005, 0.005, 0.015,
+            0.0, -0.0, -0.001, 0.004, 0.995, -0.995, 99.995, 1234567.125, 1e9 + 0.005,
+            12345678901.235, 4.35, 0.1 + 0.2, 9.0e15 + 0.5, Double.MIN_VALUE, -Double.MIN_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1e17, -1e17
+    };
+
+    @Test
+    void amountMatchesStringFormat() {
+        DisplayStrings strings = new DisplayStrings();
+        for (double value : EDGE_VALUES) {
+            assertEquals(String.format("%.2f €", value), strings.amount(value), "valeur " + value);
+        }
+        // Deuxième passage : les chaînes servies depuis le cache
+        for (double value : EDGE_VALUES) {
+            assertEquals(String.format("%.2f €", value), strings.amount(value), "valeur " + value);
+        }
+    }
+
+    @Test
+    void amountMatchesStringFormatOnHalfCents() {
+        DisplayStrings strings = new DisplayStrings();
+        for (int cents = -100_000; cents <= 100_000; cents++) {
+            double value = (cents + 0.5) / 100;
+            assertEquals(String.format("%.2f €", value), strings.amount(value), "valeur " + value);
+        }
+    }
+
+    @Test
+    void decimalFieldMatchesStringFormat() throws IOException {
+        Random random = new Random(42);
+        double[] values = new double[EDGE_VALUES.length + 10_000];
+        System.arraycopy(EDGE_VALUES, 0, values, 0, EDGE_VALUES.length);
+        for (int i = EDGE_VALUES.length; i < values.length; i++) {
+            // Moitiés de centimes et valeurs quelconques, positives et négatives
+            values[i] = i % 2 == 0
+                    ? (random.nextInt(2_000_000) - 1_000_000 + 0.5) / 100
+                    : (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+        }
+
+        Path file = Files.createTempFile("decimal", ".csv");
+        try {
+            try (CsvWriter writer = new CsvWriter(file, ';')) {
+                for (double value : values) {
+                    writer.decimalField(value).endRow();
+                }
+            }
+            String[] lines = new String(Files.readAllBytes(file), StandardCharsets.UTF_8)
+                    .split(System.lineSeparator());
+            assertEquals(values.length, lines.length);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(String.format("%.2f", values[i]), lines[i], "valeur " + values[i]);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}